@@ -0,0 +1,135 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Application context on a fresh H2 database seeded with owners, items, bookings and comments.
+ * Size is controlled with {@code -p items=...} and {@code -p bookingsPerItem=...}.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class BenchmarkDataset {
+    static final String SEARCH_TEXT = "drill";
+
+    private static final int OWNERS = 10;
+
+    private static final int BOOKERS = 100;
+
+    private static final String[] NAMES = {"drill", "saw", "hammer", "ladder", "tent", "bike", "kayak", "camera"};
+
+    @Param("1000")
+    public int items;
+
+    @Param("10")
+    public int bookingsPerItem;
+
+    ConfigurableApplicationContext context;
+
+    ItemService itemService;
+
+    BookingService bookingService;
+
+    //Owner of every OWNERS-th item, the one whose lists are measured
+    long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:shareit-benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+
+        itemService = context.getBean("itemServiceV1", ItemService.class);
+        bookingService = context.getBean("bookingServiceV1", BookingService.class);
+
+        seed();
+        context.getBean(ItemSearchIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<User> owners = userRepository.saveAll(IntStream.range(0, OWNERS)
+                .mapToObj(i -> User.builder().name("owner " + i).email("owner" + i + "@mail.ru").build())
+                .toList());
+        List<User> bookers = userRepository.saveAll(IntStream.range(0, BOOKERS)
+                .mapToObj(i -> User.builder().name("booker " + i).email("booker" + i + "@mail.ru").build())
+                .toList());
+        List<Item> saved = itemRepository.saveAll(IntStream.range(0, items)
+                .mapToObj(i -> Item.builder()
+                        .host(owners.get(i % OWNERS))
+                        .name(NAMES[i % NAMES.length] + " " + i)
+                        .description("rent a " + NAMES[(i / NAMES.length) % NAMES.length] + " for the weekend")
+                        .available(i % 7 != 0)
+                        .build())
+                .toList());
+        ownerId = owners.get(0).getId();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            long itemId = saved.get(i).getId();
+            long bookerId = bookers.get(i % BOOKERS).getId();
+
+            for (int k = 0; k < bookingsPerItem; k++) {
+                //Every fifth booking lands in the same state, so each StateDto filter has rows to return
+                LocalDateTime start = switch (k % 5) {
+                    case 0 -> now.minusDays(k + 2L);
+                    case 2 -> now.minusHours(k + 1L);
+                    default -> now.plusDays(k + 1L);
+                };
+                State status = switch (k % 5) {
+                    case 3 -> State.WAITING;
+                    case 4 -> State.REJECTED;
+                    default -> State.APPROVED;
+                };
+                bookings.add(new Object[]{bookerId,
+                        itemId,
+                        Timestamp.valueOf(start.plusMinutes(i)),
+                        Timestamp.valueOf(start.plusMinutes(i).plusDays(1)),
+                        status.name()});
+            }
+
+            comments.add(new Object[]{itemId, bookerId, "thanks, worked fine", Timestamp.valueOf(now)});
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (booker_id, item_id, booking_start, booking_end, status) "
+                + "VALUES (?, ?, ?, ?, ?)", bookings);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (item_id, user_id, comment, created_at) "
+                + "VALUES (?, ?, ?, ?)", comments);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ItemServiceBenchmark {
+    private static final int LIMIT = 100;
+
+    @Benchmark
+    public CursorPage<ItemDto> findAllByUser(BenchmarkDataset dataset) {
+        return dataset.itemService.findAllByUser(dataset.ownerId, null, LIMIT);
+    }
+
+    @Benchmark
+    public CursorPage<ItemDto> findByText(BenchmarkDataset dataset) {
+        return dataset.itemService.findByText(BenchmarkDataset.SEARCH_TEXT, null, LIMIT);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.entity.Comment;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MapperBenchmark {
+    private Booking booking;
+
+    private BookingDto bookingDto;
+
+    private Item item;
+
+    private ItemDto itemDto;
+
+    private Comment comment;
+
+    private CommentDto commentDto;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        User host = User.builder().id(1L).name("host").email("host@mail.ru").build();
+        User booker = User.builder().id(2L).name("booker").email("booker@mail.ru").build();
+
+        item = Item.builder().id(1L).host(host).name("drill").description("power drill").available(true).build();
+        booking = Booking.builder().id(1L).booker(booker).item(item).start(now).end(now.plusDays(1)).build();
+        comment = Comment.builder().id(1L).author(booker).item(item).text("thanks").created(now).build();
+
+        itemDto = ItemMapper.INSTANCE.getItemDto(item);
+        bookingDto = BookingMapper.INSTANCE.getBookingDto(booking);
+        commentDto = CommentMapper.INSTANCE.getCommentDto(comment);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.INSTANCE.getBookingDto(booking);
+    }
+
+    @Benchmark
+    public Booking bookingFromDto() {
+        return BookingMapper.INSTANCE.getBooking(bookingDto);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.INSTANCE.getItemDto(item);
+    }
+
+    @Benchmark
+    public Item itemFromDto() {
+        return ItemMapper.INSTANCE.getItem(itemDto);
+    }
+
+    @Benchmark
+    public CommentDto commentToDto() {
+        return CommentMapper.INSTANCE.getCommentDto(comment);
+    }
+
+    @Benchmark
+    public Comment commentFromDto() {
+        return CommentMapper.INSTANCE.getComment(commentDto);
+    }
+}
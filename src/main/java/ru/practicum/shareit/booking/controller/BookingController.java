@@ -1,20 +1,31 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.StateDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.metrics.QueryBudget;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.streaming.NdjsonWriter;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-@Slf4j
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
@@ -22,68 +33,135 @@ public class BookingController {
     @Qualifier("bookingServiceV1")
     BookingService bookingService;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
     @GetMapping
+    @QueryBudget(2)
     public ResponseEntity<Collection<BookingDto>> findAllByUserId(
             @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
-            @RequestParam(defaultValue = "ALL", required = false) StateDto state) {
-
-        Collection<BookingDto> bookings = bookingService.findByUserId(userId, state);
+            @RequestParam(defaultValue = "ALL", required = false) StateDto state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_LIMIT) int limit) {
 
-        log.info("GET/bookings from User {} with state {} with response {}", userId, state, bookings);
+        CursorPage<BookingDto> bookings = bookingService.findByUserId(userId, state, cursor, limit);
 
         return new ResponseEntity<>(
-                bookings,
+                bookings.getContent(),
+                bookings.headers(),
                 HttpStatus.OK);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @QueryBudget(2)
+    public void streamAllByUserId(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+                                  @RequestParam(defaultValue = "ALL", required = false) StateDto state,
+                                  HttpServletResponse response) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(response, objectMapper);
+        bookingService.streamByUserId(userId, state, writer);
+        writer.finish();
+    }
+
     @GetMapping("/{bookingId}")
+    @QueryBudget(3)
     public ResponseEntity<BookingDto> findById(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
-                                               @PathVariable long bookingId) {
+                                               @PathVariable long bookingId,
+                                               WebRequest request) {
+        Optional<String> etag = bookingService.findETag(userId, bookingId);
 
-        BookingDto booking = bookingService.findById(userId, bookingId);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
 
-        log.info("GET/bookings/{} from User {} with response {}", bookingId, userId, booking);
+        BookingDto booking = bookingService.findById(userId, bookingId);
 
-        return new ResponseEntity<>(
-                booking,
-                HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(etag.orElse(null))
+                .body(booking);
     }
 
     @GetMapping("/owner")
+    @QueryBudget(2)
     public ResponseEntity<Collection<BookingDto>> findAllByOwner(
             @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
-            @RequestParam(defaultValue = "ALL", required = false) StateDto state) {
+            @RequestParam(defaultValue = "ALL", required = false) StateDto state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_LIMIT) int limit) {
+
+        CursorPage<BookingDto> bookings = bookingService.findByOwnerId(userId, state, cursor, limit);
+
+        return new ResponseEntity<>(
+                bookings.getContent(),
+                bookings.headers(),
+                HttpStatus.OK);
+    }
 
-        Collection<BookingDto> bookings = bookingService.findByOwnerId(userId, state);
+    @GetMapping("/owner/summary")
+    @QueryBudget(2)
+    public ResponseEntity<BookingSummaryDto> findOwnerSummary(
+            @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId) {
 
-        log.info("GET/bookings/owner from User {} with state {} with response {}", userId, state, bookings);
+        BookingSummaryDto summary = bookingService.findOwnerSummary(userId);
 
         return new ResponseEntity<>(
-                bookings,
+                summary,
                 HttpStatus.OK);
     }
 
+    @GetMapping(path = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @QueryBudget(2)
+    public void streamAllByOwner(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+                                 @RequestParam(defaultValue = "ALL", required = false) StateDto state,
+                                 HttpServletResponse response) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(response, objectMapper);
+        bookingService.streamByOwnerId(userId, state, writer);
+        writer.finish();
+    }
+
+    //One of every 50 bookings also takes the next block of ids from the sequence
     @PostMapping
+    @QueryBudget(5)
     public ResponseEntity<BookingDto> create(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
                                              @Valid @RequestBody BookingDto bookingDto) {
 
         BookingDto booking = bookingService.create(userId, bookingDto);
 
-        log.info("POST/bookings from User {} with body {}", userId, booking);
-
         return new ResponseEntity<>(
                 booking,
                 HttpStatus.OK);
     }
 
+    //Statements grow with the number of distinct items and id blocks of the batch, so it has no fixed budget
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchResultDto>> createAll(
+            @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+            @RequestBody List<BookingDto> bookingDtos) {
+
+        List<BookingBatchResultDto> results = bookingService.createAll(userId, bookingDtos);
+
+        return new ResponseEntity<>(
+                results,
+                HttpStatus.OK);
+    }
+
+    @PatchMapping("/owner/decisions")
+    @QueryBudget(4)
+    public ResponseEntity<List<BookingDto>> decide(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+                                                   @RequestBody List<BookingDecisionDto> decisions) {
+        List<BookingDto> bookings = bookingService.decide(userId, decisions);
+
+        return new ResponseEntity<>(
+                bookings,
+                HttpStatus.OK);
+    }
+
     @PatchMapping("/{bookingId}")
+    @QueryBudget(4)
     public ResponseEntity<BookingDto> approve(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
                                               @RequestParam(required = true) boolean approved,
                                               @PathVariable long bookingId) {
         BookingDto booking = bookingService.approve(userId, bookingId, approved);
 
-        log.info("PATCH/bookings/{} from User {} with state {}", bookingId, userId, approved);
-
         return new ResponseEntity<>(
                 booking,
                 HttpStatus.OK);
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Outcome of one entry of a booking batch: the created booking or the status and message of the error.
+ */
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingBatchResultDto {
+    int index;
+
+    int status;
+
+    BookingDto booking;
+
+    String error;
+}
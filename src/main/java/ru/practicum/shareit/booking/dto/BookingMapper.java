@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.dto;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 import ru.practicum.shareit.booking.entity.Booking;
 
@@ -11,6 +12,10 @@ import java.util.Collection;
 public interface BookingMapper {
     BookingMapper INSTANCE = Mappers.getMapper(BookingMapper.class);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "phase", ignore = true)
+    @Mapping(target = "booker.version", ignore = true)
+    @Mapping(target = "item.version", ignore = true)
     Booking getBooking(BookingDto bookingDto);
 
     BookingDto getBookingDto(Booking booking);
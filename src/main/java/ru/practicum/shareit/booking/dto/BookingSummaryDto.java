@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Number of bookings of an owner's items in every {@link StateDto}.
+ */
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingSummaryDto {
+    long all;
+
+    long waiting;
+
+    long rejected;
+
+    long current;
+
+    long past;
+
+    long future;
+}
@@ -16,16 +16,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class Booking {
+    //Identity ids would make Hibernate insert every booking on its own, a sequence lets inserts be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     long id;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     User booker;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     Item item;
 
     @Column(name = "booking_start")
@@ -37,4 +43,12 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     State status;
 
+    //Starts as FUTURE by the column default and is moved forward by BookingPhaseScheduler only
+    @Enumerated(EnumType.STRING)
+    @Column(insertable = false, updatable = false)
+    Phase phase;
+
+    @Version
+    long version;
+
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.entity;
+
+/**
+ * Where a booking period is relative to the moment of the last phase refresh.
+ * A booking only moves forward: FUTURE, then CURRENT, then PAST.
+ */
+public enum Phase {
+    FUTURE,
+    CURRENT,
+    PAST
+}
@@ -1,34 +1,85 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.Phase;
 import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.booking.service.BookingDecisionTarget;
+import ru.practicum.shareit.booking.service.BookingInterval;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.user.entity.User;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking> {
-    Collection<Booking> getAllByBooker(User booker);
+    @Override
+    @EntityGraph(attributePaths = {"booker", "item"})
+    Optional<Booking> findById(Long id);
 
-    Collection<Booking> getAllByBookerAndStatus(User booker, State state);
+    boolean existsByBookerAndItemAndStatusAndEndBefore(User booker, Item item, State state, LocalDateTime end);
 
-    Collection<Booking> getAllByBookerAndStatusAndStartBeforeAndEndAfter(User booker, State state,
-                                                                         LocalDateTime start, LocalDateTime end);
+    @Query("select b.item.id from Booking b where b.id = :id")
+    Optional<Long> findItemIdById(@Param("id") long id);
 
-    Collection<Booking> getAllByBookerAndStatusAndEndBefore(User booker, State state, LocalDateTime end);
+    @Query("select new ru.practicum.shareit.booking.service.BookingDecisionTarget(" +
+            "b.id, b.item.id, b.item.host.id, b.status, b.start) from Booking b where b.id in :ids")
+    List<BookingDecisionTarget> findDecisionTargets(@Param("ids") Collection<Long> ids);
 
-    Collection<Booking> getAllByBookerAndStatusAndStartAfter(User booker, State state, LocalDateTime start);
+    //Set-based status change, the version is bumped like a regular entity update would do
+    @Modifying
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id in :ids and b.status = :expected")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("expected") State expected,
+                     @Param("status") State status);
 
-    Collection<Booking> getAllByBookerAndItemAndStatusAndEndBefore(User booker,
-                                                                   Item item,
-                                                                   State state,
-                                                                   LocalDateTime end);
+    @Modifying
+    @Query("update Booking b set b.phase = :to where b.phase in :from and b.end < :before")
+    int advancePhaseByEnd(@Param("from") Collection<Phase> from,
+                          @Param("to") Phase to,
+                          @Param("before") LocalDateTime before);
 
-    Optional<Booking> findFirstByItemAndStatusAndEndBeforeOrderByEndDesc(Item item, State state, LocalDateTime localDateTime);
+    @Modifying
+    @Query("update Booking b set b.phase = :to where b.phase = :from and b.start < :before")
+    int advancePhaseByStart(@Param("from") Phase from,
+                            @Param("to") Phase to,
+                            @Param("before") LocalDateTime before);
 
-    Optional<Booking> findFirstByItemAndStatusAndStartAfterOrderByStartAsc(Item item, State state, LocalDateTime localDateTime);
+    @Query("select new ru.practicum.shareit.booking.service.BookingInterval(b.id, b.start, b.end) " +
+            "from Booking b where b.item.id = :itemId and b.status in :statuses and b.end > :after")
+    List<BookingInterval> findIntervals(@Param("itemId") long itemId,
+                                        @Param("statuses") Collection<State> statuses,
+                                        @Param("after") LocalDateTime after);
+
+    Optional<Booking> findFirstByItemAndStatusAndEndGreaterThanEqualOrderByEndAsc(Item item,
+                                                                                  State state,
+                                                                                  LocalDateTime end);
+
+    //Last booking of every item: the one with the latest end before the cutoff
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking b " +
+            "where b.item in :items and b.status = :status and b.end < :cutoff " +
+            "and (b.item.id, b.end) in (select b2.item.id, max(b2.end) from Booking b2 " +
+            "where b2.item in :items and b2.status = :status and b2.end < :cutoff group by b2.item.id)")
+    List<Booking> findLastByItems(@Param("items") Collection<Item> items,
+                                  @Param("status") State status,
+                                  @Param("cutoff") LocalDateTime cutoff);
+
+    //Next booking of every item: the one with the earliest start after the cutoff
+    @EntityGraph(attributePaths = {"booker", "item"})
+    @Query("select b from Booking b " +
+            "where b.item in :items and b.status = :status and b.start > :cutoff " +
+            "and (b.item.id, b.start) in (select b2.item.id, min(b2.start) from Booking b2 " +
+            "where b2.item in :items and b2.status = :status and b2.start > :cutoff group by b2.item.id)")
+    List<Booking> findNextByItems(@Param("items") Collection<Item> items,
+                                  @Param("status") State status,
+                                  @Param("cutoff") LocalDateTime cutoff);
 }
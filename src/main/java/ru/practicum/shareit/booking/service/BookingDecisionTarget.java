@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.booking.entity.State;
+
+import java.time.LocalDateTime;
+
+/**
+ * What an owner decision needs to know about a booking, read for the whole batch at once.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingDecisionTarget {
+    private final long bookingId;
+
+    private final long itemId;
+
+    private final long hostId;
+
+    private final State status;
+
+    private final LocalDateTime start;
+}
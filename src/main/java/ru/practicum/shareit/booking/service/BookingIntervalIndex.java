@@ -0,0 +1,223 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periods of WAITING and APPROVED bookings of every item, ordered by start and id.
+ * Bookings of an item are loaded on first access and then kept up to date by create and approve.
+ * New bookings never overlap, but rows stored before the index may, so every lookup scans the intervals
+ * starting between the longest stored booking before the period and its end.
+ * Once more than {@code maxItems} items are loaded, the least recently used tenth is dropped and read again
+ * when it is needed.
+ */
+@Component
+public class BookingIntervalIndex {
+    private static final List<State> BUSY_STATES = List.of(State.WAITING, State.APPROVED);
+
+    private final Map<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    private final int maxItems;
+
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemLockStripes itemLockStripes;
+
+    public BookingIntervalIndex(@Value("${shareit.booking.interval-index.max-items:10000}") int maxItems) {
+        this.maxItems = maxItems;
+    }
+
+    public boolean overlaps(long itemId, LocalDateTime start, LocalDateTime end) {
+        return get(itemId).overlaps(start, end);
+    }
+
+    public List<BookingInterval> findBusy(long itemId, LocalDateTime from, LocalDateTime to) {
+        return get(itemId).find(from, to);
+    }
+
+    public void add(Booking booking) {
+        get(booking.getItem().getId())
+                .add(new BookingInterval(booking.getId(), booking.getStart(), booking.getEnd()));
+    }
+
+    public void remove(Booking booking) {
+        remove(booking.getItem().getId(), booking.getId(), booking.getStart());
+    }
+
+    //Intervals that are not loaded yet are read after the change, so there is nothing to remove from
+    public void remove(long itemId, long bookingId, LocalDateTime start) {
+        ItemIntervals intervals = items.get(itemId);
+
+        if (intervals != null) {
+            intervals.remove(bookingId, start);
+        }
+    }
+
+    public void removeItem(long itemId) {
+        items.remove(itemId);
+    }
+
+    //Every write to the bookings of an item commits under its lock, so a load under the lock misses none of them
+    //and no other load of the item runs meanwhile. The query runs outside of the map, other items are not blocked
+    private ItemIntervals get(long itemId) {
+        ItemIntervals intervals = items.get(itemId);
+
+        if (intervals == null) {
+            intervals = itemLockStripes.withLock(itemId, () -> {
+                ItemIntervals loaded = items.get(itemId);
+
+                if (loaded == null) {
+                    loaded = load(itemId);
+                    items.put(itemId, loaded);
+                }
+
+                return loaded;
+            });
+        }
+
+        intervals.readAt = System.nanoTime();
+
+        if (items.size() > maxItems) {
+            trim();
+        }
+
+        return intervals;
+    }
+
+    private ItemIntervals load(long itemId) {
+        ItemIntervals intervals = new ItemIntervals();
+        bookingRepository.findIntervals(itemId, BUSY_STATES, LocalDateTime.now()).forEach(intervals::add);
+        return intervals;
+    }
+
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int excess = items.size() - maxItems + maxItems / 10;
+
+            items.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().readAt))
+                    .limit(Math.max(excess, 0))
+                    .toList()
+                    .forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private static class ItemIntervals {
+        private static final Comparator<BookingInterval> BY_START = Comparator.comparing(BookingInterval::getStart)
+                .thenComparingLong(BookingInterval::getBookingId);
+
+        private static final Comparator<BookingInterval> BY_END = Comparator.comparing(BookingInterval::getEnd)
+                .thenComparingLong(BookingInterval::getBookingId);
+
+        private final NavigableSet<BookingInterval> byStart = new TreeSet<>(BY_START);
+
+        //Finished intervals are dropped from the head of this one, whatever their length
+        private final NavigableSet<BookingInterval> byEnd = new TreeSet<>(BY_END);
+
+        //Number of intervals of every length, the last key is the longest interval left
+        private final NavigableMap<Duration, Integer> lengths = new TreeMap<>();
+
+        private volatile long readAt;
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            evictFinished();
+
+            for (BookingInterval interval : candidates(start, end)) {
+                if (interval.overlaps(start, end)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        synchronized List<BookingInterval> find(LocalDateTime from, LocalDateTime to) {
+            evictFinished();
+
+            List<BookingInterval> result = new ArrayList<>();
+
+            for (BookingInterval interval : candidates(from, to)) {
+                if (interval.overlaps(from, to)) {
+                    result.add(interval);
+                }
+            }
+
+            return result;
+        }
+
+        synchronized void add(BookingInterval interval) {
+            if (byStart.add(interval)) {
+                byEnd.add(interval);
+                lengths.merge(length(interval), 1, Integer::sum);
+            }
+        }
+
+        //A start read back from the database is cut to microseconds, the stored one may be more precise
+        synchronized void remove(long bookingId, LocalDateTime start) {
+            byStart.subSet(bound(start.minus(1, ChronoUnit.MICROS), Long.MIN_VALUE), true,
+                            bound(start.plus(1, ChronoUnit.MICROS), Long.MAX_VALUE), true)
+                    .stream()
+                    .filter(interval -> interval.getBookingId() == bookingId)
+                    .toList()
+                    .forEach(this::delete);
+        }
+
+        //Intervals starting before the period by more than the longest booking left have ended before it
+        private NavigableSet<BookingInterval> candidates(LocalDateTime from, LocalDateTime to) {
+            Duration longest = lengths.isEmpty() ? Duration.ZERO : lengths.lastKey();
+
+            return byStart.subSet(bound(from.minus(longest), Long.MIN_VALUE), true, bound(to, Long.MIN_VALUE), false);
+        }
+
+        private void evictFinished() {
+            LocalDateTime now = LocalDateTime.now();
+
+            while (!byEnd.isEmpty() && !byEnd.first().getEnd().isAfter(now)) {
+                delete(byEnd.first());
+            }
+        }
+
+        //The longest length shrinks as soon as its last interval is gone
+        private void delete(BookingInterval interval) {
+            byStart.remove(interval);
+            byEnd.remove(interval);
+            lengths.computeIfPresent(length(interval), (length, count) -> count > 1 ? count - 1 : null);
+        }
+
+        private static Duration length(BookingInterval interval) {
+            return Duration.between(interval.getStart(), interval.getEnd());
+        }
+
+        private static BookingInterval bound(LocalDateTime start, long bookingId) {
+            return new BookingInterval(bookingId, start, start);
+        }
+    }
+}
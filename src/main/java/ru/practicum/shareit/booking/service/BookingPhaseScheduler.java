@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.entity.Phase;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves the stored phase of bookings forward as time passes.
+ * Bookings that ended go to PAST first, so the second update only sees bookings that are still running.
+ * Readers do not depend on how recent the last run was, see BookingServiceImpl.byState.
+ */
+@Slf4j
+@Component
+public class BookingPhaseScheduler {
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Scheduled(fixedDelayString = "${shareit.booking.phase-refresh-interval}")
+    @Transactional
+    public int advance() {
+        LocalDateTime now = LocalDateTime.now();
+
+        int past = bookingRepository.advancePhaseByEnd(List.of(Phase.FUTURE, Phase.CURRENT), Phase.PAST, now);
+        int current = bookingRepository.advancePhaseByStart(Phase.FUTURE, Phase.CURRENT, now);
+
+        if (past + current > 0) {
+            log.debug("Booking phases moved forward: {} to PAST, {} to CURRENT", past, current);
+        }
+
+        return past + current;
+    }
+}
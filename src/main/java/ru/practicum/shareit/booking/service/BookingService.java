@@ -1,28 +1,53 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.StateDto;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.item.dto.IntervalDto;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookingService {
-    Collection<BookingDto> findByUserId(long userId, StateDto state);
+    CursorPage<BookingDto> findByUserId(long userId, StateDto state, String cursor, int limit);
 
-    Collection<BookingDto> findByOwnerId(long userId, StateDto state);
+    CursorPage<BookingDto> findByOwnerId(long userId, StateDto state, String cursor, int limit);
+
+    BookingSummaryDto findOwnerSummary(long userId);
+
+    void streamByUserId(long userId, StateDto state, Consumer<? super BookingDto> consumer);
+
+    void streamByOwnerId(long userId, StateDto state, Consumer<? super BookingDto> consumer);
 
     BookingDto findById(long userId, long bookingId);
 
+    Optional<String> findETag(long userId, long bookingId);
+
     BookingDto create(long userId, BookingDto bookingDto);
 
+    List<BookingBatchResultDto> createAll(long userId, List<BookingDto> bookingDtos);
+
     BookingDto approve(long userId, long bookingId, boolean approved);
 
-    Collection<BookingDto> findByItemAndUser(User user, Item item);
+    List<BookingDto> decide(long userId, List<BookingDecisionDto> decisions);
+
+    boolean hasPastBooking(User user, Item item);
+
+    List<IntervalDto> findBusyIntervals(long itemId, LocalDateTime from, LocalDateTime to);
+
+    Map<Long, Booking> findLastBookings(Collection<Item> items);
 
-    Optional<Booking> findLastBooking(Item item);
+    Map<Long, Booking> findNextBookings(Collection<Item> items);
 
-    Optional<Booking> findNextBooking(Item item);
+    Optional<LocalDateTime> findLastBookingChange(Item item);
 }
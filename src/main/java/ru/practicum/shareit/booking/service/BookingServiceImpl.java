@@ -1,34 +1,117 @@
 package ru.practicum.shareit.booking.service;
 
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.QBean;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.dto.StateDto;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.Phase;
 import ru.practicum.shareit.booking.entity.QBooking;
 import ru.practicum.shareit.booking.entity.State;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.datasource.PrimaryRead;
+import ru.practicum.shareit.etag.ETags;
+import ru.practicum.shareit.exceptions.InvalidBatchRequestException;
+import ru.practicum.shareit.exceptions.InvalidPageRequestException;
+import ru.practicum.shareit.exceptions.InvalidPeriodException;
 import ru.practicum.shareit.exceptions.NotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.UnauthorizedAccessException;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.entity.QItem;
+import ru.practicum.shareit.item.service.ItemCardCache;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.QUser;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service("bookingServiceV1")
 public class BookingServiceImpl implements BookingService {
+    private static final long LAST_BOOKING_DELAY_DAYS = 1;
+
+    //Booking lists are read-only, rows are built straight from the selected columns
+    //and never enter the persistence context
+    private static final QBean<BookingDto> BOOKING_ROW = Projections.bean(BookingDto.class,
+            QBooking.booking.id,
+            Projections.bean(UserDto.class,
+                    QUser.user.id,
+                    QUser.user.name,
+                    QUser.user.email).as("booker"),
+            Projections.bean(ItemDto.class,
+                    QItem.item.id,
+                    QItem.item.name,
+                    QItem.item.description,
+                    QItem.item.available).as("item"),
+            QBooking.booking.start,
+            QBooking.booking.end,
+            QBooking.booking.status);
+
     @Autowired
     BookingRepository bookingRepository;
 
+    @Autowired
+    BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    ItemLockStripes itemLockStripes;
+
+    @Autowired
+    ItemCardCache itemCardCache;
+
+    @Autowired
+    OwnerSummaryCache ownerSummaryCache;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    Validator validator;
+
     @Autowired
     @Qualifier("userServiceV1")
     UserService userService;
@@ -38,78 +121,86 @@ public class BookingServiceImpl implements BookingService {
     ItemService itemService;
 
     @Override
-    public Collection<BookingDto> findByUserId(long userId, StateDto state) {
+    @Transactional(readOnly = true)
+    public CursorPage<BookingDto> findByUserId(long userId, StateDto state, String cursor, int limit) {
         //Check user exists
-        User booker = userService.findUserById(userId);
+        userService.findUserById(userId);
 
-        Collection<Booking> result = List.of();
-
-        switch (state) {
-            case ALL -> result = bookingRepository.getAllByBooker(booker);
-
-            case WAITING -> result = bookingRepository.getAllByBookerAndStatus(booker, State.WAITING);
+        return findPage(QBooking.booking.booker.id.eq(userId), state, cursor, limit);
+    }
 
-            case REJECTED -> result = bookingRepository.getAllByBookerAndStatus(booker, State.REJECTED);
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookingDto> findByOwnerId(long userId, StateDto state, String cursor, int limit) {
+        //Check if user exists
+        userService.findUserById(userId);
 
-            case CURRENT -> result = bookingRepository.getAllByBookerAndStatusAndStartBeforeAndEndAfter(
-                    booker, State.APPROVED, LocalDateTime.now(), LocalDateTime.now());
+        return findPage(QItem.item.host.id.eq(userId), state, cursor, limit);
+    }
 
-            case PAST -> result = bookingRepository.getAllByBookerAndStatusAndEndBefore(booker, State.APPROVED,
-                    LocalDateTime.now());
+    //Counts are cached, a summary read from the replica would stay until the next booking write
+    @Override
+    @PrimaryRead
+    @Transactional(readOnly = true)
+    public BookingSummaryDto findOwnerSummary(long userId) {
+        BookingSummaryDto cached = ownerSummaryCache.get(userId);
 
-            case FUTURE -> result = bookingRepository.getAllByBookerAndStatusAndStartAfter(booker, State.APPROVED,
-                    LocalDateTime.now());
+        if (cached != null) {
+            return cached;
         }
 
-        return result.stream()
-                .map(BookingMapper.INSTANCE::getBookingDto)
-                .toList();
-    }
+        long stamp = ownerSummaryCache.stamp(userId);
 
-    @Override
-    public Collection<BookingDto> findByOwnerId(long userId, StateDto state) {
         //Check if user exists
-        User host = userService.findUserById(userId);
-
-        Iterable<Booking> result = List.of();
+        userService.findUserById(userId);
+
+        //Counts of all states come from one pass over the bookings of the owner
+        LocalDateTime now = LocalDateTime.now();
+        Tuple counts = queryFactory.select(countOf(StateDto.ALL, now),
+                        countOf(StateDto.WAITING, now),
+                        countOf(StateDto.REJECTED, now),
+                        countOf(StateDto.CURRENT, now),
+                        countOf(StateDto.PAST, now),
+                        countOf(StateDto.FUTURE, now))
+                .from(QBooking.booking)
+                .join(QBooking.booking.item, QItem.item)
+                .where(QItem.item.host.id.eq(userId))
+                .fetchOne();
+
+        BookingSummaryDto summary = BookingSummaryDto.builder()
+                .all(counts.get(0, Long.class))
+                .waiting(counts.get(1, Long.class))
+                .rejected(counts.get(2, Long.class))
+                .current(counts.get(3, Long.class))
+                .past(counts.get(4, Long.class))
+                .future(counts.get(5, Long.class))
+                .build();
+
+        ownerSummaryCache.put(userId, summary, stamp);
+
+        return summary;
+    }
 
-        BooleanExpression byItemHost = QBooking.booking.item.host.id.eq(userId);
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByUserId(long userId, StateDto state, Consumer<? super BookingDto> consumer) {
+        //Check user exists
+        userService.findUserById(userId);
 
-        switch (state) {
-            case ALL -> {
-                result = bookingRepository.findAll(byItemHost);
-            }
-            case WAITING -> {
-                BooleanExpression byStatus = QBooking.booking.status.eq(State.WAITING);
-                result = bookingRepository.findAll(byItemHost.and(byStatus));
-            }
-            case REJECTED -> {
-                BooleanExpression byStatus = QBooking.booking.status.eq(State.REJECTED);
-                result = bookingRepository.findAll(byItemHost.and(byStatus));
-            }
-            case CURRENT -> {
-                BooleanExpression byStatus = QBooking.booking.status.eq(State.APPROVED);
-                BooleanExpression byStart = QBooking.booking.start.before(LocalDateTime.now());
-                BooleanExpression byEnd = QBooking.booking.end.after(LocalDateTime.now());
-                result = bookingRepository.findAll(byItemHost.and(byStatus).and(byStart).and(byEnd));
-            }
-            case PAST -> {
-                BooleanExpression byStatus = QBooking.booking.status.eq(State.APPROVED);
-                BooleanExpression byEnd = QBooking.booking.end.before(LocalDateTime.now());
-                result = bookingRepository.findAll(byItemHost.and(byStatus).and(byEnd));
-            }
-            case FUTURE -> {
-                BooleanExpression byStatus = QBooking.booking.status.eq(State.APPROVED);
-                BooleanExpression byStart = QBooking.booking.start.after(LocalDateTime.now());
-                result = bookingRepository.findAll(byItemHost.and(byStatus).and(byStart));
-            }
-        }
+        stream(QBooking.booking.booker.id.eq(userId), state, consumer);
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamByOwnerId(long userId, StateDto state, Consumer<? super BookingDto> consumer) {
+        //Check if user exists
+        userService.findUserById(userId);
 
-        return BookingMapper.INSTANCE.mapToBookingDto(result);
+        stream(QItem.item.host.id.eq(userId), state, consumer);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto findById(long userId, long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking is not found with id = " + bookingId));
@@ -121,8 +212,43 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    //The booking card is built from the booking, its booker and its item, so their versions make up the tag.
+    //Unknown and foreign bookings get no tag and go the full way to the proper error
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findETag(long userId, long bookingId) {
+        QBooking booking = QBooking.booking;
+
+        Tuple versions = queryFactory.select(booking.version, booking.booker.id, QUser.user.version,
+                        QItem.item.version, QItem.item.host.id)
+                .from(booking)
+                .join(booking.booker, QUser.user)
+                .join(booking.item, QItem.item)
+                .where(booking.id.eq(bookingId))
+                .fetchOne();
+
+        if (versions == null) {
+            return Optional.empty();
+        }
+
+        long bookerId = versions.get(booking.booker.id);
+        long hostId = versions.get(QItem.item.host.id);
+
+        if (bookerId != userId && hostId != userId) {
+            return Optional.empty();
+        }
+
+        return Optional.of(ETags.ofVersions(versions.get(booking.version),
+                versions.get(QUser.user.version),
+                versions.get(QItem.item.version)));
+    }
+
     @Override
     public BookingDto create(long userId, BookingDto bookingDto) {
+        if (!bookingDto.getStart().isBefore(bookingDto.getEnd())) {
+            throw new InvalidPeriodException("Booking start must be before its end");
+        }
+
         //Check user exists
         User user = userService.findUserById(userId);
 
@@ -138,53 +264,436 @@ public class BookingServiceImpl implements BookingService {
         booking.setStatus(State.WAITING);
         booking.setItem(item);
 
-        return BookingMapper.INSTANCE.getBookingDto(bookingRepository.save(booking));
+        //Overlap check and insert must not interleave with another booking of the same item
+        return itemLockStripes.withLock(item.getId(), () -> {
+            if (bookingIntervalIndex.overlaps(item.getId(), booking.getStart(), booking.getEnd())) {
+                throw new NotAvailableException("Item is already booked for this period with id = " + item.getId());
+            }
+
+            Booking saved = bookingRepository.save(booking);
+            bookingIntervalIndex.add(saved);
+            itemCardCache.evict(item.getId());
+            ownerSummaryCache.evict(item.getHost().getId());
+
+            return BookingMapper.INSTANCE.getBookingDto(saved);
+        });
+    }
+
+    @Override
+    public List<BookingBatchResultDto> createAll(long userId, List<BookingDto> bookingDtos) {
+        if (bookingDtos.size() > Constants.MAX_BATCH_SIZE) {
+            throw new InvalidBatchRequestException("Batch cannot contain more than " + Constants.MAX_BATCH_SIZE
+                    + " bookings");
+        }
+
+        //Check user exists
+        User user = userService.findUserById(userId);
+
+        //All items of the batch are loaded with one query
+        Map<Long, Item> items = itemService.findItemsByIds(bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            String error = validateBatchEntry(bookingDto);
+
+            if (error != null) {
+                results[i] = failedEntry(i, HttpStatus.BAD_REQUEST, error);
+                continue;
+            }
+
+            Item item = items.get(bookingDto.getItemId());
+
+            if (item == null) {
+                results[i] = failedEntry(i, HttpStatus.NOT_FOUND,
+                        "Item is not found with id = " + bookingDto.getItemId());
+            } else if (!item.isAvailable()) {
+                results[i] = failedEntry(i, HttpStatus.BAD_REQUEST,
+                        "Item is not available with id = " + bookingDto.getItemId());
+            } else {
+                Booking booking = BookingMapper.INSTANCE.getBooking(bookingDto);
+                booking.setBooker(user);
+                booking.setStatus(State.WAITING);
+                booking.setItem(item);
+                accepted.put(i, booking);
+            }
+        }
+
+        Set<Long> itemIds = accepted.values().stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+
+        //Same as create, but the checks of all items are done under their locks and the inserts go in one transaction
+        itemLockStripes.withLocks(itemIds, () -> {
+            Map<Long, List<Booking>> batchIntervals = new HashMap<>();
+            List<Booking> toSave = new ArrayList<>();
+
+            for (Map.Entry<Integer, Booking> entry : accepted.entrySet()) {
+                Booking booking = entry.getValue();
+                long itemId = booking.getItem().getId();
+                List<Booking> sameItem = batchIntervals.computeIfAbsent(itemId, id -> new ArrayList<>());
+
+                if (bookingIntervalIndex.overlaps(itemId, booking.getStart(), booking.getEnd())
+                        || sameItem.stream().anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                        && booking.getStart().isBefore(other.getEnd()))) {
+                    results[entry.getKey()] = failedEntry(entry.getKey(), HttpStatus.BAD_REQUEST,
+                            "Item is already booked for this period with id = " + itemId);
+                } else {
+                    sameItem.add(booking);
+                    toSave.add(booking);
+                }
+            }
+
+            //Ids come from the sequence on persist, the inserts are flushed in JDBC batches on commit
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.saveAll(toSave));
+
+            toSave.forEach(bookingIntervalIndex::add);
+            batchIntervals.keySet().forEach(itemCardCache::evict);
+            toSave.stream()
+                    .map(booking -> booking.getItem().getHost().getId())
+                    .distinct()
+                    .forEach(ownerSummaryCache::evict);
+
+            return null;
+        });
+
+        for (Map.Entry<Integer, Booking> entry : accepted.entrySet()) {
+            if (results[entry.getKey()] == null) {
+                results[entry.getKey()] = BookingBatchResultDto.builder()
+                        .index(entry.getKey())
+                        .status(HttpStatus.OK.value())
+                        .booking(BookingMapper.INSTANCE.getBookingDto(entry.getValue()))
+                        .build();
+            }
+        }
+
+        return List.of(results);
     }
 
     @Override
     public BookingDto approve(long userId, long bookingId, boolean approved) {
         //Check booking exists
-        Booking booking = bookingRepository.findById(bookingId)
+        long itemId = bookingRepository.findItemIdById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking is not found with id = " + bookingId));
 
-        if (booking.getItem().getHost().getId() != userId) {
-            throw new UnauthorizedAccessException("User has no rights to approve Item booking");
+        //The booking is read under the item lock, the version column catches writers that bypass the lock.
+        //Read and write share one transaction, so the commit happens before the lock is released
+        return itemLockStripes.withLock(itemId, () -> {
+            Booking saved = transactionTemplate.execute(status -> {
+                Booking booking = bookingRepository.findById(bookingId)
+                        .orElseThrow(() -> new NotFoundException("Booking is not found with id = " + bookingId));
+
+                if (booking.getItem().getHost().getId() != userId) {
+                    throw new UnauthorizedAccessException("User has no rights to approve Item booking");
+                }
+
+                if (booking.getStatus() != State.WAITING) {
+                    throw new NotAvailableException("Booking is already " + booking.getStatus()
+                            + " with id = " + bookingId);
+                }
+
+                if (approved) {
+                    booking.setStatus(State.APPROVED);
+                } else {
+                    booking.setStatus(State.REJECTED);
+                }
+
+                return bookingRepository.save(booking);
+            });
+
+            if (!approved) {
+                bookingIntervalIndex.remove(saved);
+            }
+
+            itemCardCache.evict(itemId);
+            ownerSummaryCache.evict(userId);
+
+            return BookingMapper.INSTANCE.getBookingDto(saved);
+        });
+    }
+
+    @Override
+    public List<BookingDto> decide(long userId, List<BookingDecisionDto> decisions) {
+        if (decisions.size() > Constants.MAX_BATCH_SIZE) {
+            throw new InvalidBatchRequestException("Batch cannot contain more than " + Constants.MAX_BATCH_SIZE
+                    + " decisions");
         }
 
-        if (approved) {
-            booking.setStatus(State.APPROVED);
-        } else {
-            booking.setStatus(State.REJECTED);
+        Map<Long, Boolean> approvedById = new LinkedHashMap<>();
+
+        for (BookingDecisionDto decision : decisions) {
+            if (decision == null || decision.getBookingId() == null || decision.getApproved() == null) {
+                throw new InvalidBatchRequestException("Every decision needs bookingId and approved");
+            }
+
+            Boolean previous = approvedById.put(decision.getBookingId(), decision.getApproved());
+
+            if (previous != null && !previous.equals(decision.getApproved())) {
+                throw new InvalidBatchRequestException("Conflicting decisions for booking with id = "
+                        + decision.getBookingId());
+            }
+        }
+
+        if (approvedById.isEmpty()) {
+            return List.of();
         }
 
-        return BookingMapper.INSTANCE.getBookingDto(bookingRepository.save(booking));
+        //Existence, ownership and status of the whole batch are checked with one query
+        Map<Long, BookingDecisionTarget> targets = bookingRepository.findDecisionTargets(approvedById.keySet())
+                .stream()
+                .collect(Collectors.toMap(BookingDecisionTarget::getBookingId, Function.identity()));
+
+        for (long bookingId : approvedById.keySet()) {
+            BookingDecisionTarget target = targets.get(bookingId);
+
+            if (target == null) {
+                throw new NotFoundException("Booking is not found with id = " + bookingId);
+            }
+
+            if (target.getHostId() != userId) {
+                throw new UnauthorizedAccessException("User has no rights to approve Item booking");
+            }
+
+            if (target.getStatus() != State.WAITING) {
+                throw new NotAvailableException("Booking is already " + target.getStatus()
+                        + " with id = " + bookingId);
+            }
+        }
+
+        Map<Boolean, List<Long>> idsByDecision = approvedById.entrySet().stream()
+                .collect(Collectors.partitioningBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        Set<Long> itemIds = targets.values().stream()
+                .map(BookingDecisionTarget::getItemId)
+                .collect(Collectors.toSet());
+
+        //Updates only touch bookings that are still WAITING, a booking decided in the meantime fails the batch
+        Map<Long, BookingDto> updated = itemLockStripes.withLocks(itemIds, () -> {
+            List<BookingDto> rows = transactionTemplate.execute(status -> {
+                updateStatus(idsByDecision.get(true), State.APPROVED);
+                updateStatus(idsByDecision.get(false), State.REJECTED);
+
+                return selectRows(QBooking.booking.id.in(approvedById.keySet())).fetch();
+            });
+
+            for (long bookingId : idsByDecision.get(false)) {
+                BookingDecisionTarget target = targets.get(bookingId);
+                bookingIntervalIndex.remove(target.getItemId(), bookingId, target.getStart());
+            }
+
+            itemIds.forEach(itemCardCache::evict);
+            ownerSummaryCache.evict(userId);
+
+            return rows.stream().collect(Collectors.toMap(BookingDto::getId, Function.identity()));
+        });
+
+        return approvedById.keySet().stream()
+                .map(updated::get)
+                .toList();
     }
 
     @Override
-    public Collection<BookingDto> findByItemAndUser(User user, Item item) {
-        Collection<Booking> result = bookingRepository.getAllByBookerAndItemAndStatusAndEndBefore(user,
+    @Transactional(readOnly = true)
+    public boolean hasPastBooking(User user, Item item) {
+        return bookingRepository.existsByBookerAndItemAndStatusAndEndBefore(user,
                 item,
                 State.APPROVED,
                 LocalDateTime.now());
+    }
 
-        return result.stream()
-                .map(BookingMapper.INSTANCE::getBookingDto)
+    //May load the item into BookingIntervalIndex, which create trusts for the overlap check
+    @Override
+    @PrimaryRead
+    @Transactional(readOnly = true)
+    public List<IntervalDto> findBusyIntervals(long itemId, LocalDateTime from, LocalDateTime to) {
+        return bookingIntervalIndex.findBusy(itemId, from, to).stream()
+                .map(interval -> IntervalDto.builder()
+                        .start(interval.getStart())
+                        .end(interval.getEnd())
+                        .build())
                 .toList();
     }
 
     @Override
-    public Optional<Booking> findLastBooking(Item item) {
+    @Transactional(readOnly = true)
+    public Map<Long, Booking> findLastBookings(Collection<Item> items) {
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+
         //Добавил минус 1 день, тк по моей логике подтягивается бронирование по которому комментарий ставили
         // (что по сути является PAST)
-        return bookingRepository.findFirstByItemAndStatusAndEndBeforeOrderByEndDesc(item,
+        return groupByItem(bookingRepository.findLastByItems(items,
                 State.APPROVED,
-                LocalDateTime.now().minusDays(1));
+                LocalDateTime.now().minusDays(LAST_BOOKING_DELAY_DAYS)));
     }
 
     @Override
-    public Optional<Booking> findNextBooking(Item item) {
-        return bookingRepository.findFirstByItemAndStatusAndStartAfterOrderByStartAsc(item,
+    @Transactional(readOnly = true)
+    public Map<Long, Booking> findNextBookings(Collection<Item> items) {
+        if (items.isEmpty()) {
+            return Map.of();
+        }
+
+        return groupByItem(bookingRepository.findNextByItems(items,
                 State.APPROVED,
-                LocalDateTime.now());
+                LocalDateTime.now()));
+    }
+
+    //The moment the next approved booking becomes the last one of the item
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> findLastBookingChange(Item item) {
+        return bookingRepository.findFirstByItemAndStatusAndEndGreaterThanEqualOrderByEndAsc(item,
+                        State.APPROVED,
+                        LocalDateTime.now().minusDays(LAST_BOOKING_DELAY_DAYS))
+                .map(booking -> booking.getEnd().plusDays(LAST_BOOKING_DELAY_DAYS));
+    }
+
+    private void updateStatus(List<Long> bookingIds, State status) {
+        if (!bookingIds.isEmpty()
+                && bookingRepository.updateStatus(bookingIds, State.WAITING, status) != bookingIds.size()) {
+            throw new OptimisticLockingFailureException("Bookings were decided concurrently");
+        }
+    }
+
+    //Entries of a batch are validated one by one, so an invalid entry does not fail the others
+    private String validateBatchEntry(BookingDto bookingDto) {
+        if (bookingDto == null) {
+            return "Booking cannot be null";
+        }
+
+        Set<ConstraintViolation<BookingDto>> violations = validator.validate(bookingDto);
+
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+
+        if (bookingDto.getItemId() == null) {
+            return "Item id cannot be null";
+        }
+
+        if (!bookingDto.getStart().isBefore(bookingDto.getEnd())) {
+            return "Booking start must be before its end";
+        }
+
+        return null;
+    }
+
+    private BookingBatchResultDto failedEntry(int index, HttpStatus status, String error) {
+        return BookingBatchResultDto.builder()
+                .index(index)
+                .status(status.value())
+                .error(error)
+                .build();
+    }
+
+    //Bookings are ordered by start desc, id desc, the cursor keeps position of the last row of a page
+    private CursorPage<BookingDto> findPage(BooleanExpression byUser, StateDto state, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+
+        List<BookingDto> bookings = selectRows(byUser.and(byState(state)).and(afterCursor(Cursor.decode(cursor))))
+                .limit(limit + 1)
+                .fetch();
+
+        return CursorPage.of(bookings,
+                limit,
+                booking -> Cursor.encode(booking.getStart().toString(), booking.getId()),
+                Function.identity());
+    }
+
+    //Reads a forward-only cursor and hands every booking over as soon as it is read
+    private void stream(BooleanExpression byUser, StateDto state, Consumer<? super BookingDto> consumer) {
+        try (Stream<BookingDto> bookings = selectRows(byUser.and(byState(state)))
+                .setHint(AvailableHints.HINT_FETCH_SIZE, Constants.STREAM_FETCH_SIZE)
+                .stream()) {
+            bookings.forEach(consumer);
+        }
+    }
+
+    //Number of bookings matching the state, as one column of the aggregate query
+    private NumberExpression<Long> countOf(StateDto state, LocalDateTime now) {
+        BooleanExpression predicate = byState(state, now);
+
+        if (predicate == null) {
+            return QBooking.booking.count();
+        }
+
+        return new CaseBuilder()
+                .when(predicate).then(1L)
+                .otherwise(0L)
+                .sum()
+                .coalesce(0L);
+    }
+
+    private JPAQuery<BookingDto> selectRows(BooleanExpression predicate) {
+        QBooking booking = QBooking.booking;
+
+        return queryFactory.select(BOOKING_ROW)
+                .from(booking)
+                .join(booking.booker, QUser.user)
+                .join(booking.item, QItem.item)
+                .where(predicate)
+                .orderBy(booking.start.desc(), booking.id.desc());
+    }
+
+    private BooleanExpression byState(StateDto state) {
+        return byState(state, LocalDateTime.now());
+    }
+
+    //The stored phase is exact as of the last BookingPhaseScheduler run and can only lag behind the clock.
+    //Each state is an equality on the phase plus the few bookings whose phase has not caught up yet
+    private BooleanExpression byState(StateDto state, LocalDateTime now) {
+        QBooking booking = QBooking.booking;
+
+        return switch (state) {
+            case ALL -> null;
+            case WAITING -> booking.status.eq(State.WAITING);
+            case REJECTED -> booking.status.eq(State.REJECTED);
+            case CURRENT -> booking.status.eq(State.APPROVED)
+                    .and(booking.end.after(now))
+                    .and(booking.phase.eq(Phase.CURRENT)
+                            .or(booking.phase.eq(Phase.FUTURE).and(booking.start.before(now))));
+            case PAST -> booking.status.eq(State.APPROVED)
+                    .and(booking.phase.eq(Phase.PAST)
+                            .or(booking.phase.in(Phase.FUTURE, Phase.CURRENT).and(booking.end.before(now))));
+            case FUTURE -> booking.status.eq(State.APPROVED)
+                    .and(booking.phase.eq(Phase.FUTURE))
+                    .and(booking.start.after(now));
+        };
+    }
+
+    private BooleanExpression afterCursor(Cursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+
+        LocalDateTime start;
+        try {
+            start = LocalDateTime.parse(cursor.getKey());
+        } catch (DateTimeParseException e) {
+            throw new InvalidPageRequestException("Cursor is not valid for bookings");
+        }
+
+        QBooking booking = QBooking.booking;
+
+        return booking.start.lt(start)
+                .or(booking.start.eq(start).and(booking.id.lt(cursor.getId())));
+    }
+
+    //Two bookings with the same boundary may match one item, keep the first one
+    private Map<Long, Booking> groupByItem(Collection<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(),
+                        Function.identity(),
+                        (first, second) -> first));
     }
 }
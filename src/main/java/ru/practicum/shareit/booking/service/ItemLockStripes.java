@@ -0,0 +1,70 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed set of locks shared by all items: writes to one item are serialized,
+ * writes to items that fall on different stripes run in parallel.
+ */
+@Component
+public class ItemLockStripes {
+    private final ReentrantLock[] stripes;
+
+    public ItemLockStripes(@Value("${shareit.booking.lock-stripes:64}") int count) {
+        stripes = new ReentrantLock[Integer.highestOneBit(Math.max(count, 1) * 2 - 1)];
+
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLock(long itemId, Supplier<T> action) {
+        ReentrantLock lock = stripeOf(itemId);
+
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Stripes are always taken in index order, so two callers locking overlapping sets cannot deadlock
+    public <T> T withLocks(Collection<Long> itemIds, Supplier<T> action) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (long itemId : itemIds) {
+            indexes.add(stripeIndexOf(itemId));
+        }
+
+        List<ReentrantLock> locked = new ArrayList<>(indexes.size());
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked.add(stripes[index]);
+            }
+
+            return action.get();
+        } finally {
+            for (int i = locked.size() - 1; i >= 0; i--) {
+                locked.get(i).unlock();
+            }
+        }
+    }
+
+    private ReentrantLock stripeOf(long itemId) {
+        return stripes[stripeIndexOf(itemId)];
+    }
+
+    private int stripeIndexOf(long itemId) {
+        int hash = Long.hashCode(itemId) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded LRU cache of owner booking summaries.
+ * A summary is evicted by every booking write on the owner's items and otherwise lives for a short time only,
+ * as CURRENT, PAST and FUTURE counts shift with the clock.
+ */
+@Component
+public class OwnerSummaryCache {
+    private static final int STAMP_STRIPES = 64;
+
+    private final Map<Long, Entry> summaries;
+
+    private final long ttlNanos;
+
+    //Incremented on every eviction, so a summary counted before a write is not put after it
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    public OwnerSummaryCache(@Value("${shareit.owner-summary-cache.max-size:10000}") int maxSize,
+                             @Value("${shareit.owner-summary-cache.ttl}") Duration ttl) {
+        ttlNanos = ttl.toNanos();
+        summaries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized BookingSummaryDto get(long ownerId) {
+        Entry entry = summaries.get(ownerId);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (System.nanoTime() - entry.createdAt() >= ttlNanos) {
+            summaries.remove(ownerId);
+            return null;
+        }
+
+        return entry.summary();
+    }
+
+    public long stamp(long ownerId) {
+        return stamps.get(stripeOf(ownerId));
+    }
+
+    public synchronized void put(long ownerId, BookingSummaryDto summary, long stamp) {
+        if (stamps.get(stripeOf(ownerId)) == stamp) {
+            summaries.put(ownerId, new Entry(summary, System.nanoTime()));
+        }
+    }
+
+    public synchronized void evict(long ownerId) {
+        stamps.incrementAndGet(stripeOf(ownerId));
+        summaries.remove(ownerId);
+    }
+
+    private static int stripeOf(long ownerId) {
+        return (int) Math.floorMod(ownerId, (long) STAMP_STRIPES);
+    }
+
+    private record Entry(BookingSummaryDto summary, long createdAt) {
+    }
+}
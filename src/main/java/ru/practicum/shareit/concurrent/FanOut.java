@@ -0,0 +1,72 @@
+package ru.practicum.shareit.concurrent;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.datasource.ReadRouting;
+import ru.practicum.shareit.exceptions.FanOutTimeoutException;
+import ru.practicum.shareit.metrics.RequestQueryStats;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent lookups of one request concurrently.
+ * Every task takes its own connection, so the caller must not hold one in a transaction while it waits.
+ */
+@Component
+public class FanOut {
+    @Autowired
+    @Qualifier("fanOutExecutor")
+    private ExecutorService executor;
+
+    @Value("${shareit.fan-out.timeout}")
+    private Duration timeout;
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        //Statements of the task are counted against the request that started it and routed the same way
+        RequestQueryStats stats = RequestQueryStats.current();
+        boolean primaryPinned = ReadRouting.isPrimaryPinned();
+
+        return CompletableFuture.supplyAsync(() -> {
+                    RequestQueryStats.attach(stats);
+                    ReadRouting.pinPrimary(primaryPinned);
+                    try {
+                        return task.get();
+                    } finally {
+                        RequestQueryStats.end();
+                        ReadRouting.pinPrimary(false);
+                    }
+                }, executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    //Rethrows the original exception of the task, so ErrorHandler maps it as if it was thrown by the caller
+    public <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof TimeoutException) {
+                throw new FanOutTimeoutException("Lookup did not finish in " + timeout.toMillis() + " ms");
+            }
+
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            if (cause instanceof Error error) {
+                throw error;
+            }
+
+            throw e;
+        }
+    }
+}
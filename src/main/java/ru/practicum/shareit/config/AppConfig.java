@@ -1,10 +1,28 @@
 package ru.practicum.shareit.config;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
+@EnableScheduling
 @PropertySource("classpath:/application.properties")
 public class AppConfig {
 
+    @Bean
+    public JPAQueryFactory jpaQueryFactory(EntityManager entityManager) {
+        return new JPAQueryFactory(entityManager);
+    }
+
+    //A virtual thread per lookup, the number of concurrent queries is bounded by the connection pool
+    @Bean(destroyMethod = "close")
+    public ExecutorService fanOutExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fan-out-", 0).factory());
+    }
 }
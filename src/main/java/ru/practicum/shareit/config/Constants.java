@@ -2,4 +2,14 @@ package ru.practicum.shareit.config;
 
 public final class Constants {
     public static final String HEADER_FOR_USER_ID = "X-Sharer-User-Id";
+
+    public static final String HEADER_FOR_NEXT_CURSOR = "X-Next-Cursor";
+
+    public static final String DEFAULT_PAGE_LIMIT = "100";
+
+    public static final int MAX_PAGE_LIMIT = 1000;
+
+    public static final int STREAM_FETCH_SIZE = 500;
+
+    public static final int MAX_BATCH_SIZE = 1000;
 }
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Exposes the admission queue of every connection pool: callers waiting for a connection and permits left,
+ * tagged with the pool name.
+ */
+@Component
+public class AdmissionControlMetrics implements MeterBinder {
+    @Autowired
+    Map<String, DataSource> dataSources;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        //Only the wrappers themselves, proxies in front of them would report the pool they route to at the moment
+        dataSources.forEach((name, dataSource) -> {
+            if (dataSource instanceof AdmissionControlDataSource admission) {
+                bind(registry, admission, poolName(name, admission));
+            }
+        });
+    }
+
+    private void bind(MeterRegistry registry, AdmissionControlDataSource admission, String pool) {
+        Gauge.builder("shareit.db.admission.waiting", admission, AdmissionControlDataSource::getWaiting)
+                .description("Callers waiting for database admission")
+                .tag("pool", pool)
+                .register(registry);
+        Gauge.builder("shareit.db.admission.available", admission, AdmissionControlDataSource::getAvailablePermits)
+                .description("Database admission permits left")
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    //Same tag value as the Hikari pool metrics, so both can be read side by side
+    private static String poolName(String beanName, AdmissionControlDataSource admission) {
+        if (admission.getTargetDataSource() instanceof HikariDataSource hikari && hikari.getPoolName() != null) {
+            return hikari.getPoolName();
+        }
+        return beanName;
+    }
+}
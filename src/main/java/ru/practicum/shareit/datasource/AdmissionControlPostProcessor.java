@@ -0,0 +1,38 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts {@link AdmissionControlDataSource} in front of every connection pool of the application.
+ * On by default together with virtual threads, can be switched with shareit.db.admission.enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.db.admission.enabled", havingValue = "true")
+public class AdmissionControlPostProcessor implements BeanPostProcessor {
+    private final int permits;
+
+    private final Duration timeout;
+
+    public AdmissionControlPostProcessor(
+            @Value("${shareit.db.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${shareit.db.admission.timeout:30s}") Duration timeout) {
+        this.permits = permits;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        //Only pools are wrapped, not the proxies in front of them, e.g. the replica routing
+        if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+            return new AdmissionControlDataSource(dataSource, permits, timeout);
+        }
+        return bean;
+    }
+}
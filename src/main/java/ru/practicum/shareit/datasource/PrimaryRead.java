@@ -0,0 +1,18 @@
+package ru.practicum.shareit.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps every read of the method on the primary, including nested replica read methods and fan-out tasks.
+ * For reads whose result outlives the request in a cache or index: a lagging replica would keep it stale
+ * until the next write evicts it.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PrimaryRead {
+}
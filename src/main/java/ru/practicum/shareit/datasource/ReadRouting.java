@@ -0,0 +1,44 @@
+package ru.practicum.shareit.datasource;
+
+/**
+ * Per-thread hints for {@link ReadWriteRoutingDataSource}.
+ * A read may go to the replica only inside a replica read method and when the caller is not pinned to the primary.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isPrimaryPinned() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+
+    //Set for the whole request or a PrimaryRead method, and for worker threads that serve part of it
+    public static void pinPrimary(boolean pinned) {
+        if (pinned) {
+            PRIMARY_PINNED.set(true);
+        } else {
+            PRIMARY_PINNED.remove();
+        }
+    }
+
+    static boolean isReplicaRead() {
+        return Boolean.TRUE.equals(REPLICA_READ.get());
+    }
+
+    //Returns the previous value, so nested read methods restore it
+    static boolean setReplicaRead(boolean replicaRead) {
+        boolean previous = isReplicaRead();
+
+        if (replicaRead) {
+            REPLICA_READ.set(true);
+        } else {
+            REPLICA_READ.remove();
+        }
+
+        return previous;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions of replica read methods to the replica pool and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for the connection before
+ * the transaction is marked read-only, the proxy fetches it only for the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        //A read method joined to a write transaction keeps using the connection of that transaction
+        if (ReadRouting.isReplicaRead()
+                && !ReadRouting.isPrimaryPinned()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.REPLICA;
+        }
+
+        return Route.PRIMARY;
+    }
+}
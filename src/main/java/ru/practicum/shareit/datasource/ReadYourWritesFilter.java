@@ -0,0 +1,64 @@
+package ru.practicum.shareit.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.config.Constants;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Pins requests of a caller that wrote within {@link ReadYourWritesWindow} to the primary.
+ * The caller is the user from X-Sharer-User-Id, or the client address for endpoints without it.
+ * A write opens the window when it starts and again when it ends, so the window covers reads
+ * sent right after the response whatever time the write took.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(name = "shareit.datasource.replica.jdbc-url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(),
+            HttpMethod.HEAD.name(),
+            HttpMethod.OPTIONS.name());
+
+    @Autowired
+    private ReadYourWritesWindow window;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String caller = callerOf(request);
+        boolean write = !READ_METHODS.contains(request.getMethod());
+
+        if (write) {
+            window.wrote(caller);
+        }
+
+        ReadRouting.pinPrimary(write || window.isWithin(caller));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadRouting.pinPrimary(false);
+
+            if (write) {
+                window.wrote(caller);
+            }
+        }
+    }
+
+    private static String callerOf(HttpServletRequest request) {
+        String userId = request.getHeader(Constants.HEADER_FOR_USER_ID);
+
+        return userId != null ? "user:" + userId : "address:" + request.getRemoteAddr();
+    }
+}
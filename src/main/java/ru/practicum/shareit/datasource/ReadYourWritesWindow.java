@@ -0,0 +1,44 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers callers that wrote recently. Their reads go to the primary until the window is over,
+ * so they see their own writes whatever the replica lag is, as long as the lag is shorter than the window.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.datasource.replica.jdbc-url")
+public class ReadYourWritesWindow {
+    //Expired callers are dropped once the map grows past this size
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+
+    private final long windowNanos;
+
+    public ReadYourWritesWindow(@Value("${shareit.datasource.read-your-writes-window:5s}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void wrote(String caller) {
+        long now = System.nanoTime();
+
+        primaryUntil.put(caller, now + windowNanos);
+
+        if (primaryUntil.size() > PURGE_THRESHOLD) {
+            primaryUntil.values().removeIf(until -> until - now <= 0);
+        }
+    }
+
+    public boolean isWithin(String caller) {
+        Long until = primaryUntil.get(caller);
+
+        return until != null && until - System.nanoTime() > 0;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Marks read-only transactional methods of the item, booking and user services as replica reads.
+ * Other read-only transactions, e.g. repository calls on write paths and startup loads, stay on the primary,
+ * as do all reads of {@link PrimaryRead} methods.
+ * Runs outside of the transactional proxy, so the mark is there when the first statement takes a connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "shareit.datasource.replica.jdbc-url")
+public class ReplicaReadAspect {
+
+    @Around("(within(ru.practicum.shareit.item.service.ItemServiceImpl) "
+            + "|| within(ru.practicum.shareit.booking.service.BookingServiceImpl) "
+            + "|| within(ru.practicum.shareit.user.service.UserServiceImpl)) "
+            + "&& @annotation(transactional)")
+    public Object route(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (!transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+
+        boolean previous = ReadRouting.setReplicaRead(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadRouting.setReplicaRead(previous);
+        }
+    }
+
+    @Around("@annotation(ru.practicum.shareit.datasource.PrimaryRead)")
+    public Object pinPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = ReadRouting.isPrimaryPinned();
+
+        ReadRouting.pinPrimary(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadRouting.pinPrimary(previous);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.etag;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Collectors;
+
+/**
+ * Strong entity tags for conditional GETs, without the quotes: Spring adds them when writing the header.
+ */
+public final class ETags {
+    private static final int DIGEST_BYTES = 16;
+
+    private ETags() {
+    }
+
+    //For representations built from versioned rows only, one version per row
+    public static String ofVersions(long... versions) {
+        return Arrays.stream(versions)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining("."));
+    }
+
+    //For representations that also depend on rows without a version or on time
+    public static String ofContent(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, DIGEST_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -35,6 +38,50 @@ public class ErrorHandler {
         return ErrorResponse.create(e, HttpStatus.BAD_REQUEST, e.getMessage());
     }
 
+    @ExceptionHandler
+    public ErrorResponse invalidPageRequestHandler(final InvalidPageRequestException e) {
+        log.error(e.getMessage());
+        return ErrorResponse.create(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler
+    public ErrorResponse invalidBatchRequestHandler(final InvalidBatchRequestException e) {
+        log.error(e.getMessage());
+        return ErrorResponse.create(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler
+    public ErrorResponse invalidPeriodHandler(final InvalidPeriodException e) {
+        log.error(e.getMessage());
+        return ErrorResponse.create(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler
+    public ErrorResponse optimisticLockingFailureHandler(final OptimisticLockingFailureException e) {
+        log.error(e.getMessage());
+        return ErrorResponse.create(e, HttpStatus.CONFLICT, "Resource was changed concurrently, retry the request");
+    }
+
+    @ExceptionHandler
+    public ErrorResponse fanOutTimeoutHandler(final FanOutTimeoutException e) {
+        log.error(e.getMessage());
+        return ErrorResponse.create(e, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+
+    //No connection within the admission or pool timeout: the database is saturated, the client may retry later
+    @ExceptionHandler
+    public ErrorResponse cannotCreateTransactionHandler(final CannotCreateTransactionException e) {
+        log.error(e.getMessage());
+        return ErrorResponse.create(e, HttpStatus.SERVICE_UNAVAILABLE, "Database is busy, retry the request");
+    }
+
+    //The same for a connection taken lazily, at the first statement of the transaction
+    @ExceptionHandler
+    public ErrorResponse dataAccessResourceFailureHandler(final DataAccessResourceFailureException e) {
+        log.error(e.getMessage());
+        return ErrorResponse.create(e, HttpStatus.SERVICE_UNAVAILABLE, "Database is busy, retry the request");
+    }
+
     @ExceptionHandler
     public ErrorResponse methodArgumentNotValidHandler(final MethodArgumentNotValidException e) {
         log.error(e.getMessage());
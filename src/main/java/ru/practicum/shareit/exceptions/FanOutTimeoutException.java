@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class FanOutTimeoutException extends RuntimeException {
+    public FanOutTimeoutException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -1,20 +1,30 @@
 package ru.practicum.shareit.item.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.metrics.QueryBudget;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemCard;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.logging.AccessLogFilter;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.serialization.JsonBytes;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Optional;
 
-@Slf4j
 @RestController
 @RequestMapping("/items")
 public class ItemController {
@@ -23,42 +33,79 @@ public class ItemController {
     private ItemService itemService;
 
     @GetMapping()
-    public ResponseEntity<Collection<ItemDto>> findAllByUser(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId) {
-        Collection<ItemDto> items = itemService.findAllByUser(userId);
-        log.info("GET/items from USER {} with response {}", userId, items);
+    @QueryBudget(5)
+    public ResponseEntity<Collection<ItemDto>> findAllByUser(
+            @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_LIMIT) int limit) {
+        CursorPage<ItemDto> items = itemService.findAllByUser(userId, cursor, limit);
 
         return new ResponseEntity<>(
-                items,
+                items.getContent(),
+                items.headers(),
                 HttpStatus.OK
         );
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ItemDto> findById(@PathVariable long id,
-                                            @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId) {
-        ItemDto itemDto = itemService.findById(id, userId);
-        log.info("GET/items/{} from User {} with response {}", id, userId, itemDto);
+    @QueryBudget(6)
+    public ResponseEntity<byte[]> findById(@PathVariable long id,
+                                            @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+                                            WebRequest request) {
+        Optional<String> etag = itemService.findCachedETag(id);
+
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
+
+        //On a cache miss the tag is only known once the card is loaded, an unchanged card is still not sent
+        ItemCard card = itemService.findCard(id, userId);
+
+        if (request.checkNotModified(card.getEtag())) {
+            return null;
+        }
+
+        //The card is cached as JSON, so it is sent without serializing it again
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(card.getEtag())
+                .body(card.getJson());
+    }
+
+    @GetMapping("/{id}/availability")
+    @QueryBudget(2)
+    public ResponseEntity<ItemAvailabilityDto> findAvailability(
+            @PathVariable long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ItemAvailabilityDto availability = itemService.findAvailability(id, from, to);
 
         return new ResponseEntity<>(
-                itemDto,
+                availability,
                 HttpStatus.OK);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Collection<ItemDto>> findByText(@RequestParam String text) {
-        Collection<ItemDto> items = itemService.findByText(text);
-        log.info("GET/items/search?text={} with response {}", text, items);
-
-        return new ResponseEntity<>(
-                items,
-                HttpStatus.OK);
+    @QueryBudget(1)
+    public ResponseEntity<byte[]> findByText(
+            @RequestParam String text,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_LIMIT) int limit,
+            HttpServletRequest request) {
+        CursorPage<byte[]> items = itemService.findJsonByText(text, cursor, limit);
+        AccessLogFilter.setRows(request, items.getContent().size());
+
+        return ResponseEntity.ok()
+                .headers(items.headers())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonBytes.array(items.getContent()));
     }
 
     @PostMapping()
+    @QueryBudget(3)
     public ResponseEntity<ItemDto> create(@Valid @RequestBody ItemDto itemDto,
                                           @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId) {
         ItemDto item = itemService.create(itemDto, userId);
-        log.info("POST/items from User {} with response {}", userId, item);
 
         return new ResponseEntity<>(
                 item,
@@ -66,11 +113,11 @@ public class ItemController {
     }
 
     @PatchMapping("/{id}")
+    @QueryBudget(3)
     public ResponseEntity<ItemDto> update(@PathVariable long id,
                                           @RequestBody ItemDto itemDto,
                                           @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId) {
         ItemDto item = itemService.update(id, itemDto, userId);
-        log.info("PATCH/items{} from User {} with response {}", id, userId, item);
 
         return new ResponseEntity<>(
                 item,
@@ -78,10 +125,10 @@ public class ItemController {
     }
 
     @DeleteMapping("/{id}")
+    @QueryBudget(4)
     public ResponseEntity<ItemDto> remove(@PathVariable long id,
                                           @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId) {
         ItemDto itemDto = itemService.remove(id, userId);
-        log.info("DELETE/items/{} with body {}", id, itemDto);
 
         return new ResponseEntity<>(
                 itemDto,
@@ -89,13 +136,12 @@ public class ItemController {
     }
 
     @PostMapping("/{itemId}/comment")
+    @QueryBudget(4)
     public ResponseEntity<CommentDto> addComment(@PathVariable long itemId,
                                                  @RequestBody CommentDto commentDto,
                                                  @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId) {
         CommentDto comment = itemService.addComment(itemId, commentDto, userId);
 
-        log.info("POST/items/{}/comment from user {} with body {}", itemId, userId, commentDto);
-
         return new ResponseEntity<>(
                 comment,
                 HttpStatus.OK);
@@ -15,6 +15,7 @@ public class CommentDto {
 
     String text;
 
+    @ToString.Exclude
     String authorName;
 
     LocalDateTime created;
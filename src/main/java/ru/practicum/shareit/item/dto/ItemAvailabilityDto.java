@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemAvailabilityDto {
+    Long itemId;
+
+    LocalDateTime from;
+
+    LocalDateTime to;
+
+    List<IntervalDto> busy;
+
+    List<IntervalDto> free;
+}
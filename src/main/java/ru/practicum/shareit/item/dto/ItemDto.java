@@ -28,6 +28,8 @@ public class ItemDto {
     @NotNull
     Boolean available;
 
+    Long requestId;
+
     Collection<CommentDto> comments;
 
     BookingDto lastBooking;
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.dto;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 import ru.practicum.shareit.item.entity.Item;
 
@@ -8,6 +9,7 @@ import ru.practicum.shareit.item.entity.Item;
 public interface ItemMapper {
     ItemMapper INSTANCE = Mappers.getMapper(ItemMapper.class);
 
+    @Mapping(target = "version", ignore = true)
     Item getItem(ItemDto itemDto);
 
     ItemDto getItemDto(Item item);
@@ -3,9 +3,13 @@ package ru.practicum.shareit.item.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.entity.User;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "items", schema = "public")
 @Data
 @Builder
@@ -17,8 +21,10 @@ public class Item {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     long id;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     User host;
 
     @Column(name = "name", nullable = false)
@@ -29,4 +35,10 @@ public class Item {
 
     @Column(name = "available")
     boolean available;
+
+    @Column(name = "request_id")
+    Long requestId;
+
+    @Version
+    long version;
 }
@@ -1,16 +1,22 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemAnswerDto;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.user.entity.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByHost(User host);
-
-    List<Item> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String text1, String text2);
+    List<Item> findByHostAndIdGreaterThanOrderByIdAsc(User host, long id, Limit limit);
 
     Optional<Item> findByIdAndHost(long id, User host);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemAnswerDto(i.id, i.name, i.host.id, i.requestId) "
+            + "from Item i where i.requestId in :requestIds order by i.id")
+    List<ItemAnswerDto> findAnswers(Collection<Long> requestIds);
 }
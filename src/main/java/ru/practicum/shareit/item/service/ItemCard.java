@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+/**
+ * Assembled item card together with its JSON, ready to be sent, and the entity tag of that JSON.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemCard {
+    private final ItemDto item;
+
+    private final byte[] json;
+
+    private final String etag;
+}
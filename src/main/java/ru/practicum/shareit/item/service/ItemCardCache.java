@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of assembled item cards (item with comments and last/next booking) and their ETags.
+ * A card is evicted by every write that touches its item or a user shown on it, and expires by itself when its
+ * last or next booking would change with time. Once the cache grows past its size, the least recently read
+ * tenth of the entries is dropped in one pass.
+ * Cached cards are shared between requests and must not be modified.
+ */
+@Component
+public class ItemCardCache {
+    private final Map<Long, Entry> cards = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    //Stamps are points on this sequence: a card loaded at stamp s is put only if nothing it shows was evicted after s
+    private final AtomicLong sequence = new AtomicLong();
+
+    //Latest eviction of a user, it outdates every card loaded before it
+    private final AtomicLong userEvictedAt = new AtomicLong();
+
+    //Latest eviction among entries dropped by size, it stands for the eviction of any item without an entry
+    private final AtomicLong droppedEvictedAt = new AtomicLong();
+
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    public ItemCardCache(@Value("${shareit.item-card-cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public ItemCard get(long itemId) {
+        Entry entry = cards.get(itemId);
+
+        if (entry == null || entry.card == null) {
+            return null;
+        }
+
+        if (entry.validUntil != null && !LocalDateTime.now().isBefore(entry.validUntil)) {
+            return null;
+        }
+
+        entry.readAt = System.nanoTime();
+        return entry.card;
+    }
+
+    public long stamp(long itemId) {
+        return sequence.get();
+    }
+
+    public void put(long itemId, ItemCard card, LocalDateTime validUntil, Set<Long> userIds, long stamp) {
+        cards.compute(itemId, (id, entry) -> {
+            long evictedAt = entry == null ? droppedEvictedAt.get() : entry.evictedAt;
+
+            if (evictedAt > stamp || userEvictedAt.get() > stamp) {
+                return entry;
+            }
+
+            return new Entry(card, validUntil, Set.copyOf(userIds), evictedAt);
+        });
+
+        if (cards.size() > maxSize) {
+            trim();
+        }
+    }
+
+    //The emptied entry keeps the time of eviction, so a card loaded before it is not put after it
+    public void evict(long itemId) {
+        cards.put(itemId, new Entry(null, null, Set.of(), sequence.incrementAndGet()));
+
+        if (cards.size() > maxSize) {
+            trim();
+        }
+    }
+
+    //Cards put from now on check the new user eviction, so only the ones already put are looked through
+    public void evictUser(long userId) {
+        userEvictedAt.set(sequence.incrementAndGet());
+        cards.values().removeIf(entry -> entry.userIds.contains(userId));
+    }
+
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int excess = cards.size() - maxSize + maxSize / 10;
+
+            cards.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().readAt))
+                    .limit(Math.max(excess, 0))
+                    .toList()
+                    .forEach(entry -> {
+                        //Raised before the entry is gone, so a concurrent put always sees one of them
+                        droppedEvictedAt.accumulateAndGet(entry.getValue().evictedAt, Math::max);
+                        cards.remove(entry.getKey(), entry.getValue());
+                    });
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private static final class Entry {
+        private final ItemCard card;
+
+        private final LocalDateTime validUntil;
+
+        //Users whose names or bookings the card shows
+        private final Set<Long> userIds;
+
+        private final long evictedAt;
+
+        //Written without synchronization, an occasionally lost update only makes the entry look older
+        private volatile long readAt = System.nanoTime();
+
+        private Entry(ItemCard card, LocalDateTime validUntil, Set<Long> userIds, long evictedAt) {
+            this.card = card;
+            this.validUntil = validUntil;
+            this.userIds = userIds;
+            this.evictedAt = evictedAt;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Set of item ids split into blocks of {@code 2^16} ids, so ids are not limited to the int range
+ * and sparse ids only cost the blocks they fall into. A block keeps its ids as a sorted array of offsets
+ * until it holds {@link #ARRAY_LIMIT} of them and as a bitset beyond that, so a gram found in a handful
+ * of items costs a few bytes instead of an 8 KB bitset.
+ */
+final class ItemIdSet {
+    private static final int BLOCK_BITS = 16;
+
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+
+    //At this size an array of 2-byte offsets takes as much memory as the bitset of a whole block
+    private static final int ARRAY_LIMIT = 4096;
+
+    private final NavigableMap<Long, Block> blocks = new TreeMap<>();
+
+    private long size;
+
+    void set(long id, boolean value) {
+        if (value) {
+            set(id);
+        } else {
+            clear(id);
+        }
+    }
+
+    void set(long id) {
+        long key = id >>> BLOCK_BITS;
+        Block block = blocks.computeIfAbsent(key, k -> new ArrayBlock());
+
+        if (block.add(offset(id))) {
+            size++;
+
+            if (block instanceof ArrayBlock array && array.size() > ARRAY_LIMIT) {
+                blocks.put(key, array.toBitmap());
+            }
+        }
+    }
+
+    void clear(long id) {
+        long key = id >>> BLOCK_BITS;
+        Block block = blocks.get(key);
+
+        if (block == null || !block.remove(offset(id))) {
+            return;
+        }
+
+        size--;
+
+        if (block.size() == 0) {
+            blocks.remove(key);
+        } else if (block instanceof BitmapBlock bitmap && bitmap.size() < ARRAY_LIMIT / 2) {
+            //Half the limit, so a block at the border does not switch back and forth
+            blocks.put(key, bitmap.toArray());
+        }
+    }
+
+    void clear() {
+        blocks.clear();
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Returns the least id in the set that is not less than {@code from}, or -1.
+     */
+    long nextSetBit(long from) {
+        if (from < 0) {
+            return -1;
+        }
+
+        for (Map.Entry<Long, Block> entry : blocks.tailMap(from >>> BLOCK_BITS, true).entrySet()) {
+            int start = entry.getKey() == from >>> BLOCK_BITS ? offset(from) : 0;
+            int offset = entry.getValue().next(start);
+
+            if (offset >= 0) {
+                return entry.getKey() << BLOCK_BITS | offset;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the least id in every one of {@code sets} that is not less than {@code from}, or -1.
+     * The sets are walked in turns, each skipping to the next id of the others, so none is copied.
+     * The first set leads, the smallest one makes the fewest steps.
+     */
+    static long nextCommonBit(List<ItemIdSet> sets, long from) {
+        long id = sets.getFirst().nextSetBit(from);
+        int agreed = 1;
+
+        for (int i = 1; id >= 0 && agreed < sets.size(); i = (i + 1) % sets.size()) {
+            long next = sets.get(i).nextSetBit(id);
+
+            if (next == id) {
+                agreed++;
+            } else {
+                id = next;
+                agreed = 1;
+            }
+        }
+
+        return id;
+    }
+
+    private static int offset(long id) {
+        return (int) (id & BLOCK_MASK);
+    }
+
+    private interface Block {
+        boolean add(int offset);
+
+        boolean remove(int offset);
+
+        //Least offset not less than from, or -1
+        int next(int from);
+
+        int size();
+    }
+
+    private static final class ArrayBlock implements Block {
+        private char[] offsets = new char[4];
+
+        private int size;
+
+        @Override
+        public boolean add(int offset) {
+            int index = Arrays.binarySearch(offsets, 0, size, (char) offset);
+
+            if (index >= 0) {
+                return false;
+            }
+
+            index = -index - 1;
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            System.arraycopy(offsets, index, offsets, index + 1, size - index);
+            offsets[index] = (char) offset;
+            size++;
+
+            return true;
+        }
+
+        @Override
+        public boolean remove(int offset) {
+            int index = Arrays.binarySearch(offsets, 0, size, (char) offset);
+
+            if (index < 0) {
+                return false;
+            }
+
+            System.arraycopy(offsets, index + 1, offsets, index, size - index - 1);
+            size--;
+
+            return true;
+        }
+
+        @Override
+        public int next(int from) {
+            int index = Arrays.binarySearch(offsets, 0, size, (char) from);
+
+            if (index < 0) {
+                index = -index - 1;
+            }
+
+            return index < size ? offsets[index] : -1;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        BitmapBlock toBitmap() {
+            BitmapBlock bitmap = new BitmapBlock();
+
+            for (int i = 0; i < size; i++) {
+                bitmap.add(offsets[i]);
+            }
+
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapBlock implements Block {
+        private final BitSet bits = new BitSet(1 << BLOCK_BITS);
+
+        private int size;
+
+        @Override
+        public boolean add(int offset) {
+            if (bits.get(offset)) {
+                return false;
+            }
+
+            bits.set(offset);
+            size++;
+
+            return true;
+        }
+
+        @Override
+        public boolean remove(int offset) {
+            if (!bits.get(offset)) {
+                return false;
+            }
+
+            bits.clear(offset);
+            size--;
+
+            return true;
+        }
+
+        @Override
+        public int next(int from) {
+            return bits.nextSetBit(from);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        ArrayBlock toArray() {
+            ArrayBlock array = new ArrayBlock();
+
+            for (int offset = bits.nextSetBit(0); offset >= 0; offset = bits.nextSetBit(offset + 1)) {
+                array.add(offset);
+            }
+
+            return array;
+        }
+    }
+}
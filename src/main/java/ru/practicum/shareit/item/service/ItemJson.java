@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.service;
+
+/**
+ * Public part of an item serialized to JSON, as kept by the search index.
+ */
+public record ItemJson(long id, byte[] json) {
+}
@@ -0,0 +1,237 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.serialization.JsonBytes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory substring index over item names and descriptions.
+ * Every substring of up to {@link #GRAM} characters has a posting set of item ids,
+ * so short queries are answered by a single posting and longer ones by intersecting trigram postings
+ * and checking the few candidates left. The postings and the availability set are walked together
+ * from the smallest one, nothing is copied, so a query costs about the matches it returns, not the catalogue.
+ * The public JSON of every item is written once when it is indexed and returned by search as is.
+ * The index is built once every bean is created, before the web server starts taking requests.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex implements SmartInitializingSingleton {
+    private static final int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, ItemIdSet> postings = new HashMap<>();
+
+    private final Map<Long, IndexedItem> documents = new HashMap<>();
+
+    private final ItemIdSet available = new ItemIdSet();
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        //Items are read under the lock, so an item put or removed meanwhile is applied after the load, not lost
+        lock.writeLock().lock();
+        try {
+            List<Item> items = itemRepository.findAll();
+
+            postings.clear();
+            documents.clear();
+            available.clear();
+            items.forEach(this::add);
+
+            log.info("Item search index is built with {} items and {} grams", items.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Item item) {
+        lock.writeLock().lock();
+        try {
+            delete(item.getId());
+            add(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            delete(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} matching available items with id greater than {@code afterId}, ordered by id.
+     */
+    public List<ItemDto> search(String text, long afterId, int limit) {
+        return find(text, afterId, limit, IndexedItem::toItemDto);
+    }
+
+    /**
+     * Same as {@link #search}, but returns the serialized items.
+     */
+    public List<ItemJson> searchJson(String text, long afterId, int limit) {
+        return find(text, afterId, limit, document -> new ItemJson(document.id(), document.json()));
+    }
+
+    private <T> List<T> find(String text, long afterId, int limit, Function<IndexedItem, T> mapper) {
+        String query = normalize(text);
+
+        lock.readLock().lock();
+        try {
+            List<ItemIdSet> sets = findPostings(query);
+            List<T> result = new ArrayList<>();
+
+            if (sets.isEmpty()) {
+                return result;
+            }
+
+            sets.add(available);
+            sets.sort(Comparator.comparingLong(ItemIdSet::size));
+
+            for (long itemId = ItemIdSet.nextCommonBit(sets, afterId + 1);
+                 itemId >= 0 && result.size() < limit;
+                 itemId = ItemIdSet.nextCommonBit(sets, itemId + 1)) {
+                IndexedItem document = documents.get(itemId);
+
+                //Grams of a long query may come from different places of the text, so recheck the candidate
+                if (query.length() <= GRAM || document.contains(query)) {
+                    result.add(mapper.apply(document));
+                }
+            }
+
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Postings every match is in, empty when a gram matches nothing. They are only read under the read lock
+    private List<ItemIdSet> findPostings(String query) {
+        List<ItemIdSet> sets = new ArrayList<>();
+
+        for (String gram : query.length() <= GRAM ? Set.of(query) : grams(query, GRAM, GRAM)) {
+            ItemIdSet posting = postings.get(gram);
+
+            if (posting == null) {
+                return new ArrayList<>();
+            }
+
+            sets.add(posting);
+        }
+
+        return sets;
+    }
+
+    private void add(Item item) {
+        IndexedItem document = new IndexedItem(item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.isAvailable(),
+                normalize(item.getName()),
+                normalize(item.getDescription()),
+                JsonBytes.write(objectMapper, ItemMapper.INSTANCE.getItemDto(item)));
+
+        documents.put(document.id(), document);
+        available.set(document.id(), document.available());
+
+        for (String gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new ItemIdSet()).set(document.id());
+        }
+    }
+
+    private void delete(long itemId) {
+        IndexedItem document = documents.remove(itemId);
+
+        if (document == null) {
+            return;
+        }
+
+        available.clear(itemId);
+
+        for (String gram : document.grams()) {
+            ItemIdSet posting = postings.get(gram);
+            posting.clear(itemId);
+
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text, int minLength, int maxLength) {
+        Set<String> grams = new HashSet<>();
+
+        for (int start = 0; start < text.length(); start++) {
+            for (int length = minLength; length <= maxLength && start + length <= text.length(); length++) {
+                grams.add(text.substring(start, start + length));
+            }
+        }
+
+        return grams;
+    }
+
+    private record IndexedItem(long id,
+                               String name,
+                               String description,
+                               boolean available,
+                               String normalizedName,
+                               String normalizedDescription,
+                               byte[] json) {
+
+        boolean contains(String query) {
+            return normalizedName.contains(query) || normalizedDescription.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(normalizedName, 1, GRAM);
+            grams.addAll(ItemSearchIndex.grams(normalizedDescription, 1, GRAM));
+            return grams;
+        }
+
+        ItemDto toItemDto() {
+            return ItemDto.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .available(available)
+                    .build();
+        }
+    }
+}
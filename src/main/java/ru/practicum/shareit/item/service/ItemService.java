@@ -1,20 +1,39 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAnswerDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface ItemService {
 
-    Collection<ItemDto> findAllByUser(long userId);
+    CursorPage<ItemDto> findAllByUser(long userId, String cursor, int limit);
 
     ItemDto findById(long id, long userId);
 
+    ItemCard findCard(long id, long userId);
+
+    Optional<String> findCachedETag(long id);
+
     Item findItemById(long id);
 
-    Collection<ItemDto> findByText(String text);
+    Map<Long, List<ItemAnswerDto>> findAnswers(Collection<Long> requestIds);
+
+    Map<Long, Item> findItemsByIds(Collection<Long> ids);
+
+    ItemAvailabilityDto findAvailability(long id, LocalDateTime from, LocalDateTime to);
+
+    CursorPage<ItemDto> findByText(String text, String cursor, int limit);
+
+    CursorPage<byte[]> findJsonByText(String text, String cursor, int limit);
 
     ItemDto create(ItemDto itemDto, long userId);
 
@@ -1,31 +1,52 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.dto.BookingDto;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.concurrent.FanOut;
+import ru.practicum.shareit.datasource.PrimaryRead;
+import ru.practicum.shareit.etag.ETags;
+import ru.practicum.shareit.exceptions.InvalidPeriodException;
 import ru.practicum.shareit.exceptions.NotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentMapper;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAnswerDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.entity.Comment;
 import ru.practicum.shareit.item.entity.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.serialization.JsonBytes;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service("itemServiceV1")
 public class ItemServiceImpl implements ItemService {
@@ -35,6 +56,15 @@ public class ItemServiceImpl implements ItemService {
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Autowired
+    private ItemCardCache itemCardCache;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
     @Autowired
     @Qualifier("userServiceV1")
     private UserService userService;
@@ -44,42 +74,169 @@ public class ItemServiceImpl implements ItemService {
     @Lazy
     private BookingService bookingService;
 
+    @Autowired
+    @Qualifier("itemRequestServiceV1")
+    @Lazy
+    private ItemRequestService itemRequestService;
 
+    @Autowired
+    private FanOut fanOut;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    //No transaction here, comments and bookings are loaded concurrently with connections of their own
     @Override
-    public Collection<ItemDto> findAllByUser(long userId) {
+    public CursorPage<ItemDto> findAllByUser(long userId, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+
         User host = userService.findUserById(userId);
 
-        return itemRepository.findByHost(host).stream()
-                .map(this::loadCommentsAndBookings)
-                .toList();
+        List<Item> items = itemRepository.findByHostAndIdGreaterThanOrderByIdAsc(host,
+                Cursor.afterId(cursor),
+                Limit.of(limit + 1));
+
+        return CursorPage.of(items, limit, item -> Cursor.encode(item.getId()), Function.<Item>identity())
+                .mapContent(this::loadCommentsAndBookings);
     }
 
     @Override
+    @PrimaryRead
     public ItemDto findById(long id, long userId) {
+        return findCard(id, userId).getItem();
+    }
+
+    //A card built from the replica would stay in the cache after the write that evicted it
+    @Override
+    @PrimaryRead
+    public ItemCard findCard(long id, long userId) {
         //userService.findById(userId);
 
+        ItemCard cached = itemCardCache.get(id);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = itemCardCache.stamp(id);
+
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Item is not found with id = " + id));
 
-        return loadCommentsAndBookings(item);
+        CompletableFuture<Optional<LocalDateTime>> lastChange =
+                fanOut.submit(() -> bookingService.findLastBookingChange(item));
+
+        Set<Long> userIds = new HashSet<>();
+        ItemDto itemDto = loadCommentsAndBookings(List.of(item), userIds).get(0);
+        byte[] json = JsonBytes.write(objectMapper, itemDto);
+        ItemCard card = new ItemCard(itemDto, json, ETags.ofContent(json));
+        itemCardCache.put(id, card, findCardValidUntil(fanOut.join(lastChange).orElse(null), itemDto), userIds,
+                stamp);
+
+        return card;
     }
 
+    //Answered from the card cache only: a miss means the card has to be built anyway
     @Override
+    public Optional<String> findCachedETag(long id) {
+        return Optional.ofNullable(itemCardCache.get(id)).map(ItemCard::getEtag);
+    }
+
+    @Override
+    public Map<Long, List<ItemAnswerDto>> findAnswers(Collection<Long> requestIds) {
+        return itemRepository.findAnswers(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Item findItemById(long id) {
         return itemRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Item is not found with id = " + id));
     }
 
     @Override
-    public Collection<ItemDto> findByText(String text) {
+    @Transactional(readOnly = true)
+    public Map<Long, Item> findItemsByIds(Collection<Long> ids) {
+        return itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
+    //Busy intervals come from BookingIntervalIndex, a cold item is loaded into it by this read
+    @Override
+    @PrimaryRead
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto findAvailability(long id, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidPeriodException("Period start must be before its end");
+        }
+
+        //Check item exists
+        findItemById(id);
+
+        List<IntervalDto> busy = new ArrayList<>();
+        List<IntervalDto> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+
+        //Busy intervals are ordered by start, free ones are the gaps between them
+        for (IntervalDto interval : bookingService.findBusyIntervals(id, from, to)) {
+            LocalDateTime start = interval.getStart().isBefore(from) ? from : interval.getStart();
+            LocalDateTime end = interval.getEnd().isAfter(to) ? to : interval.getEnd();
+
+            //Bookings stored before overlaps were checked may overlap, they are merged into one busy interval
+            if (!busy.isEmpty() && start.isBefore(freeFrom)) {
+                if (end.isAfter(freeFrom)) {
+                    busy.getLast().setEnd(end);
+                    freeFrom = end;
+                }
+                continue;
+            }
+
+            if (freeFrom.isBefore(start)) {
+                free.add(new IntervalDto(freeFrom, start));
+            }
+
+            busy.add(new IntervalDto(start, end));
+            freeFrom = end;
+        }
+
+        if (freeFrom.isBefore(to)) {
+            free.add(new IntervalDto(freeFrom, to));
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(id)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
+    }
+
+    @Override
+    public CursorPage<ItemDto> findByText(String text, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+
         if (text == null || text.isBlank()) {
-            return List.of();
+            return new CursorPage<>(List.of(), null);
         }
 
-        return itemRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(text, text).stream()
-                .filter(Item::isAvailable)
-                .map(ItemMapper.INSTANCE::getItemDto)
-                .toList();
+        List<ItemDto> items = itemSearchIndex.search(text, Cursor.afterId(cursor), limit + 1);
+
+        return CursorPage.of(items, limit, item -> Cursor.encode(item.getId()), Function.identity());
+    }
+
+    @Override
+    public CursorPage<byte[]> findJsonByText(String text, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+
+        if (text == null || text.isBlank()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        List<ItemJson> items = itemSearchIndex.searchJson(text, Cursor.afterId(cursor), limit + 1);
+
+        return CursorPage.of(items, limit, item -> Cursor.encode(item.id()), ItemJson::json);
     }
 
     @Override
@@ -88,10 +245,16 @@ public class ItemServiceImpl implements ItemService {
 
         UserMapper.INSTANCE.getUser(userService.findById(userId));
 
+        if (itemDto.getRequestId() != null) {
+            itemRequestService.checkExists(itemDto.getRequestId());
+        }
+
         Item item = ItemMapper.INSTANCE.getItem(itemDto);
         item.setHost(user);
+        item = itemRepository.save(item);
+        itemSearchIndex.put(item);
 
-        return ItemMapper.INSTANCE.getItemDto(itemRepository.save(item));
+        return ItemMapper.INSTANCE.getItemDto(item);
     }
 
     @Override
@@ -113,7 +276,11 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(itemDto.getAvailable());
         }
 
-        return ItemMapper.INSTANCE.getItemDto(itemRepository.save(item));
+        item = itemRepository.save(item);
+        itemSearchIndex.put(item);
+        itemCardCache.evict(id);
+
+        return ItemMapper.INSTANCE.getItemDto(item);
     }
 
     @Override
@@ -125,6 +292,9 @@ public class ItemServiceImpl implements ItemService {
                         "related to user with id = " + userId));
 
         itemRepository.deleteById(id);
+        itemSearchIndex.remove(id);
+        itemCardCache.evict(id);
+        bookingIntervalIndex.removeItem(id);
 
         return ItemMapper.INSTANCE.getItemDto(item);
     }
@@ -138,9 +308,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Item is not found with id = " + itemId));
 
-        Collection<BookingDto> bookingDtos = bookingService.findByItemAndUser(author, item);
-
-        if (bookingDtos.isEmpty()) {
+        if (!bookingService.hasPastBooking(author, item)) {
             throw new NotAvailableException("User does not have PAST bookings of this Item");
         }
 
@@ -151,24 +319,66 @@ public class ItemServiceImpl implements ItemService {
         comment.setCreated(LocalDateTime.now());
 
         comment = commentRepository.save(comment);
+        itemCardCache.evict(itemId);
 
         return CommentMapper.INSTANCE.getCommentDto(comment);
     }
 
-    private ItemDto loadCommentsAndBookings(Item item) {
-        Collection<Comment> comments = commentRepository.findAllByItem(item);
+    //Card stays valid until its next booking starts or another booking becomes the last one
+    private LocalDateTime findCardValidUntil(LocalDateTime lastChange, ItemDto card) {
+        if (card.getNextBooking() == null) {
+            return lastChange;
+        }
+
+        LocalDateTime nextStart = card.getNextBooking().getStart();
 
-        ItemDto itemDto = ItemMapper.INSTANCE.getItemDto(item);
-        itemDto.setComments(comments.stream()
-                .map(CommentMapper.INSTANCE::getCommentDto)
-                .toList());
+        return lastChange == null || nextStart.isBefore(lastChange) ? nextStart : lastChange;
+    }
 
-        Optional<Booking> last = bookingService.findLastBooking(item);
-        last.ifPresent(booking -> itemDto.setLastBooking(BookingMapper.INSTANCE.getBookingDto(booking)));
+    //Loads comments and last/next bookings for the whole set of items with one query each, the queries run concurrently
+    private List<ItemDto> loadCommentsAndBookings(List<Item> items) {
+        return loadCommentsAndBookings(items, new HashSet<>());
+    }
 
-        Optional<Booking> next = bookingService.findNextBooking(item);
-        last.ifPresent(booking -> itemDto.setNextBooking(BookingMapper.INSTANCE.getBookingDto(booking)));
+    //Collects ids of the comment authors and bookers shown on the items into userIds
+    private List<ItemDto> loadCommentsAndBookings(List<Item> items, Set<Long> userIds) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
 
-        return itemDto;
+        CompletableFuture<Map<Long, List<Comment>>> commentsFuture = fanOut.submit(() ->
+                commentRepository.findAllByItemIn(items).stream()
+                        .collect(Collectors.groupingBy(comment -> comment.getItem().getId())));
+        CompletableFuture<Map<Long, Booking>> lastBookingsFuture =
+                fanOut.submit(() -> bookingService.findLastBookings(items));
+        CompletableFuture<Map<Long, Booking>> nextBookingsFuture =
+                fanOut.submit(() -> bookingService.findNextBookings(items));
+
+        Map<Long, List<Comment>> comments = fanOut.join(commentsFuture);
+        Map<Long, Booking> lastBookings = fanOut.join(lastBookingsFuture);
+        Map<Long, Booking> nextBookings = fanOut.join(nextBookingsFuture);
+
+        return items.stream()
+                .map(item -> {
+                    ItemDto itemDto = ItemMapper.INSTANCE.getItemDto(item);
+                    List<Comment> itemComments = comments.getOrDefault(item.getId(), List.of());
+                    itemDto.setComments(itemComments.stream().map(CommentMapper.INSTANCE::getCommentDto).toList());
+                    itemComments.forEach(comment -> userIds.add(comment.getAuthor().getId()));
+
+                    Booking last = lastBookings.get(item.getId());
+                    if (last != null) {
+                        itemDto.setLastBooking(BookingMapper.INSTANCE.getBookingDto(last));
+                        userIds.add(last.getBooker().getId());
+                    }
+
+                    Booking next = nextBookings.get(item.getId());
+                    if (next != null) {
+                        itemDto.setNextBooking(BookingMapper.INSTANCE.getBookingDto(next));
+                        userIds.add(next.getBooker().getId());
+                    }
+
+                    return itemDto;
+                })
+                .toList();
     }
 }
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.logging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hands the number of returned rows and, for a sample of requests, a size-capped payload to {@link AccessLogFilter}.
+ */
+@ControllerAdvice
+public class AccessLogBodyAdvice implements ResponseBodyAdvice<Object> {
+    private final double payloadSampleRate;
+
+    private final int payloadMaxLength;
+
+    public AccessLogBodyAdvice(@Value("${shareit.access-log.payload-sample-rate}") double payloadSampleRate,
+                               @Value("${shareit.access-log.payload-max-length}") int payloadMaxLength) {
+        this.payloadSampleRate = payloadSampleRate;
+        this.payloadMaxLength = payloadMaxLength;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            if (servletRequest.getServletRequest().getAttribute(AccessLogFilter.ROWS_ATTRIBUTE) == null) {
+                servletRequest.getServletRequest().setAttribute(AccessLogFilter.ROWS_ATTRIBUTE, rows(body));
+            }
+
+            if (payloadSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < payloadSampleRate) {
+                servletRequest.getServletRequest().setAttribute(AccessLogFilter.PAYLOAD_ATTRIBUTE,
+                        PayloadPreview.of(body, payloadMaxLength));
+            }
+        }
+
+        return body;
+    }
+
+    private static int rows(Object body) {
+        if (body == null) {
+            return 0;
+        }
+
+        return body instanceof Collection<?> collection ? collection.size() : 1;
+    }
+}
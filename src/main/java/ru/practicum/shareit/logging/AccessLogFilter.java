@@ -0,0 +1,69 @@
+package ru.practicum.shareit.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.config.Constants;
+
+import java.io.IOException;
+
+/**
+ * Writes one line per request: endpoint, user, status, latency and result size.
+ * Response payloads are left to {@link AccessLogBodyAdvice}, which samples and caps them.
+ * Runs before the other filters of the application, so the latency includes them.
+ */
+@Slf4j(topic = "ru.practicum.shareit.access")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AccessLogFilter extends OncePerRequestFilter {
+    static final String ROWS_ATTRIBUTE = AccessLogFilter.class.getName() + ".rows";
+
+    static final String PAYLOAD_ATTRIBUTE = AccessLogFilter.class.getName() + ".payload";
+
+    //For bodies written as ready JSON, whose rows the body advice cannot count
+    public static void setRows(HttpServletRequest request, int rows) {
+        request.setAttribute(ROWS_ATTRIBUTE, rows);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!log.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long started = System.nanoTime();
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(response);
+        boolean failed = true;
+
+        try {
+            filterChain.doFilter(request, countingResponse);
+            failed = false;
+        } finally {
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Object rows = request.getAttribute(ROWS_ATTRIBUTE);
+            Object payload = request.getAttribute(PAYLOAD_ATTRIBUTE);
+
+            //An exception that escaped the dispatcher is turned into 500 by the container after this filter
+            log.info("method={} uri={} path={} user={} status={} durationMs={} bytes={} rows={}{}",
+                    request.getMethod(),
+                    uri == null ? "UNKNOWN" : uri,
+                    request.getRequestURI(),
+                    request.getHeader(Constants.HEADER_FOR_USER_ID),
+                    failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : countingResponse.getStatus(),
+                    (System.nanoTime() - started) / 1_000_000,
+                    countingResponse.getBytes(),
+                    rows == null ? "-" : rows,
+                    payload == null ? "" : " payload=" + payload);
+        }
+    }
+}
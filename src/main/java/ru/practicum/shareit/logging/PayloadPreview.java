@@ -0,0 +1,49 @@
+package ru.practicum.shareit.logging;
+
+import java.util.Collection;
+
+/**
+ * Renders a response body for the log, stopping as soon as the length limit is reached.
+ * Elements of a collection past the limit are counted, not rendered. Serialized bodies are shown by their size.
+ */
+public final class PayloadPreview {
+    private PayloadPreview() {
+    }
+
+    public static String of(Object body, int maxLength) {
+        //Ready JSON such as item cards may hold booker names and emails that cannot be left out, so only its size goes
+        if (body instanceof byte[] json) {
+            return "<" + json.length + " bytes of JSON>";
+        }
+
+        if (!(body instanceof Collection<?> collection)) {
+            return cut(String.valueOf(body), maxLength);
+        }
+
+        StringBuilder preview = new StringBuilder("[");
+        int rendered = 0;
+
+        for (Object element : collection) {
+            if (preview.length() >= maxLength) {
+                break;
+            }
+
+            if (rendered > 0) {
+                preview.append(", ");
+            }
+
+            preview.append(cut(String.valueOf(element), maxLength - preview.length()));
+            rendered++;
+        }
+
+        if (rendered < collection.size()) {
+            preview.append(" ... ").append(collection.size() - rendered).append(" more");
+        }
+
+        return preview.append(']').toString();
+    }
+
+    private static String cut(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, Math.max(maxLength, 0)) + "...";
+    }
+}
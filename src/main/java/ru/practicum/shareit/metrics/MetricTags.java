@@ -0,0 +1,27 @@
+package ru.practicum.shareit.metrics;
+
+import ru.practicum.shareit.booking.dto.StateDto;
+
+final class MetricTags {
+    static final String NONE = "none";
+
+    private MetricTags() {
+    }
+
+    //Only known states become tag values, anything else would grow the number of meters
+    static String state(Object value) {
+        if (value instanceof StateDto state) {
+            return state.name();
+        }
+
+        if (value instanceof String text) {
+            for (StateDto state : StateDto.values()) {
+                if (state.name().equalsIgnoreCase(text)) {
+                    return state.name();
+                }
+            }
+        }
+
+        return NONE;
+    }
+}
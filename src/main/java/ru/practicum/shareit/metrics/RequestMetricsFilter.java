@@ -0,0 +1,72 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.exceptions.QueryBudgetExceededException;
+
+import java.io.IOException;
+
+/**
+ * Records SQL statements and loaded entities of every request,
+ * tagged by endpoint and, for booking lists, by the requested state.
+ * Requests over their {@link QueryBudget} are logged with their statements, in strict mode they fail.
+ */
+@Slf4j
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${shareit.query-budget.strict:false}")
+    boolean strictQueryBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.start();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(),
+                    "uri", uri == null ? "UNKNOWN" : uri.toString(),
+                    "state", MetricTags.state(request.getParameter("state")));
+
+            DistributionSummary.builder("shareit.request.statements")
+                    .description("SQL statements prepared while serving a request")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(stats.getStatements());
+            DistributionSummary.builder("shareit.request.entities")
+                    .description("Entities loaded while serving a request")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(stats.getEntities());
+        }
+
+        if (stats.isOverBudget()) {
+            String message = String.format("%s %s ran %d SQL statements over the budget of %d",
+                    request.getMethod(), request.getRequestURI(), stats.getStatements(), stats.getBudget());
+            log.warn("{}:\n{}", message, String.join("\n", stats.getSql()));
+
+            if (strictQueryBudget) {
+                throw new QueryBudgetExceededException(message);
+            }
+        }
+    }
+}
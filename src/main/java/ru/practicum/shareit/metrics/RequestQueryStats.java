@@ -0,0 +1,85 @@
+package ru.practicum.shareit.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SQL statements and entities loaded while serving the current request.
+ */
+public class RequestQueryStats {
+    public static final int NO_BUDGET = -1;
+
+    //Only the first statements are kept for the log, the counter keeps going
+    private static final int MAX_KEPT_STATEMENTS = 100;
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong statements = new AtomicLong();
+
+    private final AtomicLong entities = new AtomicLong();
+
+    private final List<String> sql = new ArrayList<>();
+
+    private volatile int budget = NO_BUDGET;
+
+    public static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    //Makes stats of a request current on a worker thread that serves part of it
+    public static void attach(RequestQueryStats stats) {
+        CURRENT.set(stats);
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    //Null outside of a request, e.g. for scheduled jobs and startup
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public void statementPrepared(String statement) {
+        statements.incrementAndGet();
+
+        synchronized (sql) {
+            if (sql.size() < MAX_KEPT_STATEMENTS) {
+                sql.add(statement);
+            }
+        }
+    }
+
+    public void entityLoaded() {
+        entities.incrementAndGet();
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    public long getEntities() {
+        return entities.get();
+    }
+
+    public List<String> getSql() {
+        synchronized (sql) {
+            return List.copyOf(sql);
+        }
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public void setBudget(int budget) {
+        this.budget = budget;
+    }
+
+    public boolean isOverBudget() {
+        return budget != NO_BUDGET && statements.get() > budget;
+    }
+}
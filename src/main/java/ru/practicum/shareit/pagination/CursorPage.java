@@ -0,0 +1,56 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.exceptions.InvalidPageRequestException;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private final List<T> content;
+
+    //Null when this is the last page
+    private final String next;
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}: the extra row only tells that a next page exists.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows,
+                                          int limit,
+                                          Function<E, String> cursorOf,
+                                          Function<E, T> mapper) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows.stream().map(mapper).toList(), null);
+        }
+
+        List<E> page = rows.subList(0, limit);
+
+        return new CursorPage<>(page.stream().map(mapper).toList(), cursorOf.apply(page.get(limit - 1)));
+    }
+
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > Constants.MAX_PAGE_LIMIT) {
+            throw new InvalidPageRequestException("Limit must be between 1 and " + Constants.MAX_PAGE_LIMIT);
+        }
+    }
+
+    //Replaces the content as a whole, for rows that are loaded in one batch
+    public <R> CursorPage<R> mapContent(Function<List<T>, List<R>> mapper) {
+        return new CursorPage<>(mapper.apply(content), next);
+    }
+
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+
+        if (next != null) {
+            headers.set(Constants.HEADER_FOR_NEXT_CURSOR, next);
+        }
+
+        return headers;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.request.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.metrics.QueryBudget;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.Collection;
+
+@RestController
+@RequestMapping(path = "/requests")
+public class ItemRequestController {
+    @Autowired
+    @Qualifier("itemRequestServiceV1")
+    private ItemRequestService itemRequestService;
+
+    @PostMapping
+    @QueryBudget(2)
+    public ResponseEntity<ItemRequestDto> create(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+                                                 @Valid @RequestBody ItemRequestDto itemRequestDto) {
+        ItemRequestDto request = itemRequestService.create(userId, itemRequestDto);
+
+        return new ResponseEntity<>(
+                request,
+                HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    @QueryBudget(3)
+    public ResponseEntity<Collection<ItemRequestDto>> findByRequestor(
+            @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_LIMIT) int limit) {
+        CursorPage<ItemRequestDto> requests = itemRequestService.findByRequestor(userId, cursor, limit);
+
+        return new ResponseEntity<>(
+                requests.getContent(),
+                requests.headers(),
+                HttpStatus.OK);
+    }
+
+    @GetMapping("/all")
+    @QueryBudget(3)
+    public ResponseEntity<Collection<ItemRequestDto>> findFeed(
+            @RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_LIMIT) int limit) {
+        CursorPage<ItemRequestDto> requests = itemRequestService.findFeed(userId, cursor, limit);
+
+        return new ResponseEntity<>(
+                requests.getContent(),
+                requests.headers(),
+                HttpStatus.OK);
+    }
+
+    @GetMapping("/{requestId}")
+    @QueryBudget(3)
+    public ResponseEntity<ItemRequestDto> findById(@RequestHeader(Constants.HEADER_FOR_USER_ID) long userId,
+                                                   @PathVariable long requestId) {
+        ItemRequestDto request = itemRequestService.findById(userId, requestId);
+
+        return new ResponseEntity<>(
+                request,
+                HttpStatus.OK);
+    }
+}
@@ -1,7 +1,27 @@
 package ru.practicum.shareit.request.dto;
 
-/**
- * TODO Sprint add-item-requests.
- */
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.item.dto.ItemAnswerDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Data
+@Builder
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@AllArgsConstructor
+@NoArgsConstructor
 public class ItemRequestDto {
+    long id;
+
+    @NotBlank
+    @Size(max = 1000)
+    String description;
+
+    LocalDateTime created;
+
+    Collection<ItemAnswerDto> items;
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.dto;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+import ru.practicum.shareit.request.entity.ItemRequest;
+
+@Mapper
+public interface ItemRequestMapper {
+    ItemRequestMapper INSTANCE = Mappers.getMapper(ItemRequestMapper.class);
+
+    //The requestor is the caller, the service sets it
+    @Mapping(target = "requestor", ignore = true)
+    ItemRequest getItemRequest(ItemRequestDto itemRequestDto);
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+import ru.practicum.shareit.user.entity.User;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "requests", schema = "public")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ItemRequest {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    long id;
+
+    @Column(name = "description", nullable = false)
+    String description;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "requestor_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    User requestor;
+
+    @Column(name = "created", nullable = false)
+    LocalDateTime created;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.request.entity.ItemRequest;
+
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findByIdLessThanOrderByIdDesc(long id, Limit limit);
+
+    List<ItemRequest> findByRequestorIdAndIdLessThanOrderByIdDesc(long requestorId, long id, Limit limit);
+
+    List<ItemRequest> findByRequestorIdNotAndIdLessThanOrderByIdDesc(long requestorId, long id, Limit limit);
+}
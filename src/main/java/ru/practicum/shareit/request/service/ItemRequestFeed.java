@@ -0,0 +1,194 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.entity.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only ring of the newest item requests, ordered by id, behind the global request feed.
+ * It is loaded from the database once every bean is created, before the web server starts taking requests,
+ * and appended by every created request; the oldest requests are overwritten once the ring is full.
+ * Pages that reach past the oldest request in the ring are left to the database.
+ */
+@Slf4j
+@Component
+public class ItemRequestFeed implements SmartInitializingSingleton {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Entry[] ring;
+
+    //Number of requests ever appended, the newest one is at (count - 1) % ring.length
+    private long count;
+
+    //Whether the ring was loaded with every request in the database
+    private boolean loadedAll;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    public ItemRequestFeed(@Value("${shareit.request-feed.capacity:10000}") int capacity) {
+        ring = new Entry[capacity];
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    //Requests are read under the lock, so one created meanwhile is appended after the load, not lost
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            List<ItemRequest> newest = itemRequestRepository.findByIdLessThanOrderByIdDesc(Long.MAX_VALUE,
+                    Limit.of(ring.length + 1));
+
+            count = 0;
+            loadedAll = newest.size() <= ring.length;
+
+            for (int i = Math.min(newest.size(), ring.length) - 1; i >= 0; i--) {
+                ring[(int) (count++ % ring.length)] = Entry.of(newest.get(i));
+            }
+
+            log.info("Item request feed is loaded with {} requests", count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void append(ItemRequest request) {
+        Entry entry = Entry.of(request);
+
+        lock.writeLock().lock();
+        try {
+            //Requests committed out of id order are moved into place, it is at most a few steps back
+            long position = count;
+            while (position > oldest() && at(position - 1).id() > entry.id()) {
+                position--;
+            }
+
+            //Committed before the load took the lock, so it is in the ring already
+            if (position > oldest() && at(position - 1).id() == entry.id()) {
+                return;
+            }
+
+            if (position < count + 1 - ring.length) {
+                //Older than every request the ring keeps, the database serves it
+                loadedAll = false;
+                return;
+            }
+
+            //In a full ring the first move overwrites the oldest request
+            for (long i = count; i > position; i--) {
+                ring[index(i)] = at(i - 1);
+            }
+
+            ring[index(position)] = entry;
+            count++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} requests of other users with id less than {@code beforeId}, newest first,
+     * or nothing when the page reaches past the oldest request in the ring.
+     */
+    public Optional<List<Entry>> findPage(long userId, long beforeId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Entry> page = new ArrayList<>();
+
+            for (long position = floor(beforeId); position >= oldest() && page.size() < limit; position--) {
+                Entry entry = at(position);
+
+                if (entry.requestorId() != userId) {
+                    page.add(entry);
+                }
+            }
+
+            if (page.size() < limit && !holdsAll()) {
+                return Optional.empty();
+            }
+
+            return Optional.of(page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Entry> find(long id) {
+        lock.readLock().lock();
+        try {
+            long position = floor(id + 1);
+
+            return position >= oldest() && at(position).id() == id ? Optional.of(at(position)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean holdsAll() {
+        return loadedAll && count <= ring.length;
+    }
+
+    //Position of the newest request with id less than the given one, or oldest() - 1
+    private long floor(long beforeId) {
+        long low = oldest();
+        long high = count - 1;
+
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+
+            if (at(middle).id() < beforeId) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return high;
+    }
+
+    private long oldest() {
+        return Math.max(count - ring.length, 0);
+    }
+
+    private Entry at(long position) {
+        return ring[index(position)];
+    }
+
+    private int index(long position) {
+        return (int) (position % ring.length);
+    }
+
+    public record Entry(long id, long requestorId, String description, LocalDateTime created) {
+
+        static Entry of(ItemRequest request) {
+            return new Entry(request.getId(),
+                    request.getRequestor().getId(),
+                    request.getDescription(),
+                    request.getCreated());
+        }
+
+        ItemRequestDto toItemRequestDto() {
+            return ItemRequestDto.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.service;
+
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+public interface ItemRequestService {
+    ItemRequestDto create(long userId, ItemRequestDto itemRequestDto);
+
+    CursorPage<ItemRequestDto> findByRequestor(long userId, String cursor, int limit);
+
+    CursorPage<ItemRequestDto> findFeed(long userId, String cursor, int limit);
+
+    ItemRequestDto findById(long userId, long requestId);
+
+    void checkExists(long requestId);
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemAnswerDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.entity.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Service("itemRequestServiceV1")
+public class ItemRequestServiceImpl implements ItemRequestService {
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemRequestFeed itemRequestFeed;
+
+    @Autowired
+    @Qualifier("userServiceV1")
+    private UserService userService;
+
+    @Autowired
+    @Qualifier("itemServiceV1")
+    private ItemService itemService;
+
+    @Override
+    public ItemRequestDto create(long userId, ItemRequestDto itemRequestDto) {
+        User user = userService.findUserById(userId);
+
+        ItemRequest request = ItemRequestMapper.INSTANCE.getItemRequest(itemRequestDto);
+        request.setRequestor(user);
+        //The database keeps microseconds, the feed shows the same time as the rows read back
+        request.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        request = itemRequestRepository.save(request);
+
+        //Saved outside of a transaction, so the request is committed before the feed shows it
+        itemRequestFeed.append(request);
+
+        ItemRequestDto created = ItemRequestFeed.Entry.of(request).toItemRequestDto();
+        created.setItems(List.of());
+
+        return created;
+    }
+
+    @Override
+    public CursorPage<ItemRequestDto> findByRequestor(long userId, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+
+        //Check if user exists
+        userService.findUserById(userId);
+
+        List<ItemRequestFeed.Entry> requests = itemRequestRepository
+                .findByRequestorIdAndIdLessThanOrderByIdDesc(userId, beforeId(cursor), Limit.of(limit + 1))
+                .stream()
+                .map(ItemRequestFeed.Entry::of)
+                .toList();
+
+        return toPage(requests, limit);
+    }
+
+    @Override
+    public CursorPage<ItemRequestDto> findFeed(long userId, String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+
+        //Check if user exists
+        userService.findUserById(userId);
+
+        long beforeId = beforeId(cursor);
+
+        List<ItemRequestFeed.Entry> requests = itemRequestFeed.findPage(userId, beforeId, limit + 1)
+                .orElseGet(() -> itemRequestRepository
+                        .findByRequestorIdNotAndIdLessThanOrderByIdDesc(userId, beforeId, Limit.of(limit + 1))
+                        .stream()
+                        .map(ItemRequestFeed.Entry::of)
+                        .toList());
+
+        return toPage(requests, limit);
+    }
+
+    @Override
+    public ItemRequestDto findById(long userId, long requestId) {
+        //Check if user exists
+        userService.findUserById(userId);
+
+        ItemRequestFeed.Entry request = itemRequestFeed.find(requestId)
+                .orElseGet(() -> itemRequestRepository.findById(requestId)
+                        .map(ItemRequestFeed.Entry::of)
+                        .orElseThrow(() -> new NotFoundException("Item request is not found with id = "
+                                + requestId)));
+
+        return withAnswers(List.of(request)).get(0);
+    }
+
+    @Override
+    public void checkExists(long requestId) {
+        if (itemRequestFeed.find(requestId).isEmpty() && !itemRequestRepository.existsById(requestId)) {
+            throw new NotFoundException("Item request is not found with id = " + requestId);
+        }
+    }
+
+    private CursorPage<ItemRequestDto> toPage(List<ItemRequestFeed.Entry> requests, int limit) {
+        return CursorPage.of(requests, limit, request -> Cursor.encode(request.id()), Function.identity())
+                .mapContent(this::withAnswers);
+    }
+
+    //Items offered in answer to the whole page come from one query
+    private List<ItemRequestDto> withAnswers(List<ItemRequestFeed.Entry> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<ItemAnswerDto>> answers = itemService.findAnswers(requests.stream()
+                .map(ItemRequestFeed.Entry::id)
+                .toList());
+
+        return requests.stream()
+                .map(request -> {
+                    ItemRequestDto dto = request.toItemRequestDto();
+                    dto.setItems(answers.getOrDefault(request.id(), List.of()));
+                    return dto;
+                })
+                .toList();
+    }
+
+    private static long beforeId(String cursor) {
+        Cursor decoded = Cursor.decode(cursor);
+        return decoded == null ? Long.MAX_VALUE : decoded.getId();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+/**
+ * Ready-to-send UTF-8 JSON, written once and returned by controllers as is.
+ */
+public final class JsonBytes {
+    private JsonBytes() {
+    }
+
+    public static byte[] write(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Joins serialized values into a JSON array without parsing them again
+    public static byte[] array(Collection<byte[]> values) {
+        int length = 2 + Math.max(values.size() - 1, 0);
+        for (byte[] value : values) {
+            length += value.length;
+        }
+
+        byte[] array = new byte[length];
+        int position = 0;
+        array[position++] = '[';
+
+        for (byte[] value : values) {
+            if (position > 1) {
+                array[position++] = ',';
+            }
+
+            System.arraycopy(value, 0, array, position, value.length);
+            position += value.length;
+        }
+
+        array[position] = ']';
+
+        return array;
+    }
+}
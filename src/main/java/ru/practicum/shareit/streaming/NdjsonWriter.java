@@ -0,0 +1,54 @@
+package ru.practicum.shareit.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes every accepted value to the response as one line of JSON.
+ * The response is started on the first value, so errors raised before it still reach the ErrorHandler.
+ * Values are written while the service still reads its cursor, so the transaction and its connection are held
+ * until the client has taken the whole response.
+ */
+public class NdjsonWriter implements Consumer<Object> {
+    private final HttpServletResponse response;
+
+    private final ObjectWriter writer;
+
+    private OutputStream outputStream;
+
+    public NdjsonWriter(HttpServletResponse response, ObjectMapper objectMapper) {
+        this.response = response;
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void accept(Object value) {
+        try {
+            start();
+            writer.writeValue(outputStream, value);
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void finish() throws IOException {
+        start();
+        outputStream.flush();
+    }
+
+    private void start() throws IOException {
+        if (outputStream == null) {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            outputStream = response.getOutputStream();
+        }
+    }
+}
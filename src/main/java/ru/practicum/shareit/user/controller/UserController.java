@@ -1,18 +1,26 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.metrics.QueryBudget;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.streaming.NdjsonWriter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
 import java.util.Collection;
+import java.util.Optional;
 
-@Slf4j
 @RestController
 @RequestMapping(path = "/users")
 public class UserController {
@@ -20,31 +28,51 @@ public class UserController {
     @Qualifier("userServiceV1")
     private UserService userService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping()
-    public ResponseEntity<Collection<UserDto>> findAll() {
-        Collection<UserDto> users = userService.findAll();
-        log.info("GET/users with response {}", users);
+    @QueryBudget(1)
+    public ResponseEntity<Collection<UserDto>> findAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = Constants.DEFAULT_PAGE_LIMIT) int limit) {
+        CursorPage<UserDto> users = userService.findAll(cursor, limit);
 
         return new ResponseEntity<>(
-                users,
+                users.getContent(),
+                users.headers(),
                 HttpStatus.OK
         );
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @QueryBudget(1)
+    public void streamAll(HttpServletResponse response) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(response, objectMapper);
+        userService.streamAll(writer);
+        writer.finish();
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getById(@PathVariable long id) {
+    @QueryBudget(2)
+    public ResponseEntity<UserDto> getById(@PathVariable long id, WebRequest request) {
+        Optional<String> etag = userService.findETag(id);
+
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return null;
+        }
+
         UserDto userDto = userService.findById(id);
-        log.info("Response: GET/users/{} with response {}", id, userDto);
 
-        return new ResponseEntity<>(
-                userDto,
-                HttpStatus.OK);
+        return ResponseEntity.ok()
+                .eTag(etag.orElse(null))
+                .body(userDto);
     }
 
     @PostMapping()
+    @QueryBudget(1)
     public ResponseEntity<UserDto> create(@Valid @RequestBody UserDto userDto) {
         UserDto user = userService.create(userDto);
-        log.info("POST/users with response {}", user);
 
         return new ResponseEntity<>(
                 user,
@@ -52,9 +80,9 @@ public class UserController {
     }
 
     @PatchMapping("/{id}")
+    @QueryBudget(3)
     public ResponseEntity<UserDto> update(@PathVariable long id, @RequestBody UserDto userDto) {
         UserDto user = userService.update(id, userDto);
-        log.info("PATCH/users{} with response {}", id, user);
 
         return new ResponseEntity<>(
                 user,
@@ -62,9 +90,9 @@ public class UserController {
     }
 
     @DeleteMapping("/{id}")
+    @QueryBudget(3)
     public ResponseEntity<UserDto> remove(@PathVariable long id) {
         UserDto user = userService.remove(id);
-        log.info("DELETE/users/{} with response {}", id, user);
 
         return new ResponseEntity<>(
                 user,
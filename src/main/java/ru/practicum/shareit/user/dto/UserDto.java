@@ -14,10 +14,13 @@ import lombok.experimental.FieldDefaults;
 public class UserDto {
     Long id;
 
+    //Personal data stays out of logs, the access log samples response payloads by toString
+    @ToString.Exclude
     @NotBlank
     @Size(max = 255)
     String name;
 
+    @ToString.Exclude
     @Email
     @NotBlank
     @Size(max = 255)
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user.dto;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 import ru.practicum.shareit.user.entity.User;
 
@@ -8,6 +9,7 @@ import ru.practicum.shareit.user.entity.User;
 public interface UserMapper {
     UserMapper INSTANCE = Mappers.getMapper(UserMapper.class);
 
+    @Mapping(target = "version", ignore = true)
     User getUser(UserDto userDto);
 
     UserDto getUserDto(User user);
@@ -3,8 +3,12 @@ package ru.practicum.shareit.user.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Builder
 @Data
 @AllArgsConstructor
@@ -22,4 +26,7 @@ public class User {
 
     @Column(name = "email", nullable = false, unique = true)
     String email;
+
+    @Version
+    long version;
 }
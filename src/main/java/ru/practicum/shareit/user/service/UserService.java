@@ -1,18 +1,24 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.entity.User;
 
-import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserService {
 
-    Collection<UserDto> findAll();
+    CursorPage<UserDto> findAll(String cursor, int limit);
+
+    void streamAll(Consumer<? super UserDto> consumer);
 
     UserDto findById(long id);
 
     User findUserById(long id);
 
+    Optional<String> findETag(long id);
+
     UserDto create(UserDto userDto);
 
     UserDto update(long id, UserDto userDto);
@@ -1,39 +1,95 @@
 package ru.practicum.shareit.user.service;
 
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.etag.ETags;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
+import ru.practicum.shareit.user.entity.QUser;
 import ru.practicum.shareit.user.entity.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service("userServiceV1")
 public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private JPAQueryFactory queryFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ItemCardCache itemCardCache;
+
     @Override
-    public Collection<UserDto> findAll() {
-        return userRepository.findAll().stream()
-                .map(UserMapper.INSTANCE::getUserDto)
-                .toList();
+    @Transactional(readOnly = true)
+    public CursorPage<UserDto> findAll(String cursor, int limit) {
+        CursorPage.checkLimit(limit);
+
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(Cursor.afterId(cursor),
+                Limit.of(limit + 1));
+
+        return CursorPage.of(users, limit, user -> Cursor.encode(user.getId()), UserMapper.INSTANCE::getUserDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<? super UserDto> consumer) {
+        try (Stream<User> users = queryFactory.selectFrom(QUser.user)
+                .orderBy(QUser.user.id.asc())
+                .setHint(AvailableHints.HINT_FETCH_SIZE, Constants.STREAM_FETCH_SIZE)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .stream()) {
+            int count = 0;
+
+            for (User user : (Iterable<User>) users::iterator) {
+                consumer.accept(UserMapper.INSTANCE.getUserDto(user));
+
+                if (++count % Constants.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public UserDto findById(long id) {
         return UserMapper.INSTANCE.getUserDto(userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User is not found with id = " + id)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User findUserById(long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User is not found with id = " + id));
     }
 
+    //Served from the second level cache, so a conditional GET skips the mapping and serialization
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<String> findETag(long id) {
+        return userRepository.findById(id).map(user -> ETags.ofVersions(user.getVersion()));
+    }
+
     @Override
     public UserDto create(UserDto userDto) {
         User user = UserMapper.INSTANCE.getUser(userDto);
@@ -53,7 +109,11 @@ public class UserServiceImpl implements UserService {
             user.setEmail(userDto.getEmail());
         }
 
-        return UserMapper.INSTANCE.getUserDto(userRepository.save(user));
+        User saved = userRepository.save(user);
+        //Item cards show names of bookers and comment authors
+        itemCardCache.evictUser(id);
+
+        return UserMapper.INSTANCE.getUserDto(saved);
     }
 
     @Override
@@ -62,6 +122,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException("User is not found with id = " + id));
 
         userRepository.deleteById(id);
+        itemCardCache.evictUser(id);
 
         return UserMapper.INSTANCE.getUserDto(user);
     }
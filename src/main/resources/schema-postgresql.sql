@@ -0,0 +1,7 @@
+--Runs after schema.sql on PostgreSQL only, H2 has no setval.
+--Databases created before the sequence hold IDENTITY ids past its start: move it beyond the rows once.
+--Hibernate takes the returned value as the first id of its block, so a sequence already ahead is left alone
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM bookings), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM bookings)
+      >= (SELECT COALESCE(last_value + increment_by, start_value) FROM pg_sequences
+          WHERE schemaname = current_schema() AND sequencename = 'bookings_seq');
@@ -1,7 +1,8 @@
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    email VARCHAR(255) UNIQUE NOT NULL
+    email VARCHAR(255) UNIQUE NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS items (
@@ -10,22 +11,49 @@ CREATE TABLE IF NOT EXISTS items (
     name VARCHAR(255) NOT NULL,
     description VARCHAR(255) NOT NULL,
     available BOOLEAN,
+    version BIGINT NOT NULL DEFAULT 0,
 
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings (
+--For databases created before the versions were introduced
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS requests (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(1000) NOT NULL,
+    requestor_id BIGINT NOT NULL,
+    created TIMESTAMP NOT NULL,
+
+    FOREIGN KEY (requestor_id) REFERENCES users(id)
+);
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS request_id BIGINT REFERENCES requests(id);
+
+--Bookings take ids from a sequence in blocks of 50, so Hibernate can batch their inserts
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id BIGINT DEFAULT nextval('bookings_seq') PRIMARY KEY,
     booker_id BIGINT NOT NULL,
     item_id BIGINT NOT NULL,
     booking_start TIMESTAMP NOT NULL,
     booking_end TIMESTAMP NOT NULL,
     status VARCHAR(100) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    phase VARCHAR(10) NOT NULL DEFAULT 'FUTURE',
 
     FOREIGN KEY (booker_id) REFERENCES users(id),
     FOREIGN KEY (item_id) REFERENCES items(id)
 );
 
+--For databases created before the columns were introduced, the scheduler moves old rows forward
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS phase VARCHAR(10) NOT NULL DEFAULT 'FUTURE';
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     item_id BIGINT NOT NULL,
@@ -36,3 +64,21 @@ CREATE TABLE IF NOT EXISTS comments (
     FOREIGN KEY (user_id) REFERENCES users(id),
     FOREIGN KEY (item_id) REFERENCES items(id)
 );
+
+CREATE INDEX IF NOT EXISTS items_user_id_idx ON items (user_id, id);
+
+CREATE INDEX IF NOT EXISTS items_request_id_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS requests_requestor_id_idx ON requests (requestor_id, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, booking_start DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, booking_start DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_phase_idx ON bookings (booker_id, status, phase, booking_start DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_phase_idx ON bookings (item_id, status, phase, booking_start DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_phase_start_idx ON bookings (phase, booking_start);
+
+CREATE INDEX IF NOT EXISTS bookings_phase_end_idx ON bookings (phase, booking_end);
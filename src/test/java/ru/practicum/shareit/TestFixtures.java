@@ -0,0 +1,77 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Test data shared by the Spring tests. It lives in the application package,
+ * so every test context picks it up by component scan and contexts stay shared.
+ */
+@Component
+public class TestFixtures {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public User createUser(String name) {
+        return userRepository.save(User.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build());
+    }
+
+    public Item createItem(User host) {
+        return itemRepository.save(Item.builder()
+                .host(host)
+                .name("item")
+                .description("description")
+                .available(true)
+                .build());
+    }
+
+    //Rows go straight to the table, past the overlap check and the caches, as rows of an existing database
+    public void insertBookings(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (booker_id, item_id, booking_start, booking_end, status) "
+                + "VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    public static Object[] bookingRow(User booker, Item item, LocalDateTime start, LocalDateTime end) {
+        return bookingRow(booker, item, start, end, State.APPROVED);
+    }
+
+    public static Object[] bookingRow(User booker, Item item, LocalDateTime start, LocalDateTime end, State state) {
+        return new Object[]{booker.getId(), item.getId(), Timestamp.valueOf(start), Timestamp.valueOf(end),
+                state.name()};
+    }
+
+    //Statements prepared by Hibernate while the action runs, counted across all threads
+    public long countQueries(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        action.run();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,486 @@
+package ru.practicum.shareit.booking.service;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.StateDto;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.Phase;
+import ru.practicum.shareit.booking.entity.QBooking;
+import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.InvalidPeriodException;
+import ru.practicum.shareit.exceptions.NotAvailableException;
+import ru.practicum.shareit.exceptions.UnauthorizedAccessException;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.entity.User;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.TestFixtures.bookingRow;
+
+@Slf4j
+@SpringBootTest
+class BookingServiceImplTest {
+    private static final int THREADS = 16;
+
+    private static final int OWNER_BOOKINGS = 10_000;
+
+    private static final int PAGE_LIMIT = 1000;
+
+    private static final int BATCH_BOOKINGS = 200;
+
+    @Autowired
+    @Qualifier("bookingServiceV1")
+    private BookingService bookingService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingPhaseScheduler bookingPhaseScheduler;
+
+    @Test
+    void concurrentApprovalsOfOneBookingApproveItOnce() throws Exception {
+        User host = fixtures.createUser("approve-host");
+        User booker = fixtures.createUser("approve-booker");
+        Item item = fixtures.createItem(host);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto booking = bookingService.create(booker.getId(), createBookingDto(item, start, start.plusDays(1)));
+
+        AtomicInteger rejected = new AtomicInteger();
+        int approved = runConcurrently(THREADS, thread -> {
+            try {
+                bookingService.approve(host.getId(), booking.getId(), true);
+                return true;
+            } catch (NotAvailableException | OptimisticLockingFailureException e) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        });
+
+        assertEquals(1, approved);
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(State.APPROVED, bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        assertEquals(1, bookingRepository.findById(booking.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void concurrentBookingsOfOnePeriodCreateOneBooking() throws Exception {
+        User host = fixtures.createUser("create-host");
+        Item item = fixtures.createItem(host);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(fixtures.createUser("create-booker-" + i));
+        }
+
+        int created = runConcurrently(THREADS, thread -> {
+            try {
+                bookingService.create(bookers.get(thread).getId(), createBookingDto(item, start, start.plusDays(1)));
+                return true;
+            } catch (NotAvailableException e) {
+                return false;
+            }
+        });
+
+        assertEquals(1, created);
+    }
+
+    //Rows stored before overlaps were checked may overlap each other and still have to block new bookings
+    @Test
+    void bookingOverlappingLoadedLegacyBookingsIsRejected() {
+        User host = fixtures.createUser("legacy-host");
+        User booker = fixtures.createUser("legacy-booker");
+        Item hidden = fixtures.createItem(host);
+        Item sameStart = fixtures.createItem(host);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        //A long booking hidden behind a later shorter one, and two bookings with the same start
+        fixtures.insertBookings(List.of(bookingRow(booker, hidden, start, start.plusDays(10)),
+                bookingRow(booker, hidden, start.plusDays(1), start.plusDays(1).plusHours(1)),
+                bookingRow(booker, sameStart, start, start.plusHours(2)),
+                bookingRow(booker, sameStart, start, start.plusHours(1))));
+
+        assertThrows(NotAvailableException.class, () -> bookingService.create(booker.getId(),
+                createBookingDto(hidden, start.plusDays(5), start.plusDays(6))));
+        assertThrows(NotAvailableException.class, () -> bookingService.create(booker.getId(),
+                createBookingDto(sameStart, start.plusMinutes(90), start.plusMinutes(100))));
+
+        bookingService.create(booker.getId(), createBookingDto(hidden, start.plusDays(10), start.plusDays(11)));
+        bookingService.create(booker.getId(), createBookingDto(sameStart, start.plusHours(2), start.plusHours(3)));
+    }
+
+    //Once the long booking is gone the scan only reaches back by the short ones, which still have to block
+    @Test
+    void rejectedLongBookingFreesItsPeriodAndKeepsShorterOnesBusy() {
+        User host = fixtures.createUser("shrink-host");
+        User booker = fixtures.createUser("shrink-booker");
+        Item item = fixtures.createItem(host);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        BookingDto longBooking = bookingService.create(booker.getId(),
+                createBookingDto(item, start, start.plusDays(10)));
+        bookingService.create(booker.getId(), createBookingDto(item, start.plusDays(10), start.plusDays(12)));
+
+        bookingService.approve(host.getId(), longBooking.getId(), false);
+
+        bookingService.create(booker.getId(), createBookingDto(item, start.plusDays(5), start.plusDays(6)));
+        assertThrows(NotAvailableException.class, () -> bookingService.create(booker.getId(),
+                createBookingDto(item, start.plusDays(11), start.plusDays(11).plusHours(1))));
+        assertThrows(NotAvailableException.class, () -> bookingService.create(booker.getId(),
+                createBookingDto(item, start.plusDays(9), start.plusDays(13))));
+    }
+
+    //An inverted period would give the interval index a lower bound above the upper one
+    @Test
+    void bookingWithEndBeforeStartIsRejected() {
+        User host = fixtures.createUser("inverted-host");
+        User booker = fixtures.createUser("inverted-booker");
+        Item item = fixtures.createItem(host);
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+
+        assertThrows(InvalidPeriodException.class, () -> bookingService.create(booker.getId(),
+                createBookingDto(item, start, start.minusDays(1))));
+
+        bookingService.create(booker.getId(), createBookingDto(item, start.minusDays(1), start));
+    }
+
+    @Test
+    void bookingsOfDifferentItemsAreCreatedInParallel() throws Exception {
+        int bookingsPerThread = 25;
+        User host = fixtures.createUser("parallel-host");
+        User booker = fixtures.createUser("parallel-booker");
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            items.add(fixtures.createItem(host));
+        }
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        long begin = System.nanoTime();
+
+        int created = runConcurrently(THREADS, thread -> {
+            for (int i = 0; i < bookingsPerThread; i++) {
+                LocalDateTime bookingStart = start.plusDays(i);
+                bookingService.create(booker.getId(),
+                        createBookingDto(items.get(thread), bookingStart, bookingStart.plusHours(12)));
+            }
+            return true;
+        });
+
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        log.info("Created {} bookings on {} items from {} threads: {} bookings/s",
+                THREADS * bookingsPerThread, THREADS, THREADS, Math.round(THREADS * bookingsPerThread / seconds));
+
+        assertEquals(THREADS, created);
+    }
+
+    @Test
+    void batchReportsEveryEntryAndInsertsInBatches() {
+        User host = fixtures.createUser("batch-host");
+        User booker = fixtures.createUser("batch-booker");
+        Item item = fixtures.createItem(host);
+        Item unavailable = fixtures.createItem(host);
+        unavailable.setAvailable(false);
+        itemRepository.save(unavailable);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDto> batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_BOOKINGS; i++) {
+            batch.add(createBookingDto(item, start.plusDays(i), start.plusDays(i).plusHours(12)));
+        }
+        batch.add(createBookingDto(item, start.plusHours(6), start.plusHours(18)));
+        batch.add(createBookingDto(unavailable, start, start.plusHours(1)));
+        batch.add(BookingDto.builder().itemId(-1L).start(start).end(start.plusHours(1)).build());
+        batch.add(BookingDto.builder().itemId(item.getId()).end(start).build());
+        batch.add(createBookingDto(item, start.plusDays(BATCH_BOOKINGS + 1), start.plusDays(BATCH_BOOKINGS)));
+
+        List<BookingBatchResultDto> results = new ArrayList<>();
+        long statements = fixtures.countQueries(() ->
+                results.addAll(bookingService.createAll(booker.getId(), batch)));
+        log.info("Created {} bookings in a batch with {} prepared statements", BATCH_BOOKINGS, statements);
+
+        assertEquals(batch.size(), results.size());
+        for (int i = 0; i < BATCH_BOOKINGS; i++) {
+            assertEquals(200, results.get(i).getStatus());
+            assertEquals(i, results.get(i).getIndex());
+            assertTrue(bookingRepository.existsById(results.get(i).getBooking().getId()));
+        }
+        assertEquals(400, results.get(BATCH_BOOKINGS).getStatus());
+        assertEquals(400, results.get(BATCH_BOOKINGS + 1).getStatus());
+        assertEquals(404, results.get(BATCH_BOOKINGS + 2).getStatus());
+        assertEquals(400, results.get(BATCH_BOOKINGS + 3).getStatus());
+        assertEquals(400, results.get(BATCH_BOOKINGS + 4).getStatus());
+        assertTrue(statements < BATCH_BOOKINGS / 10);
+    }
+
+    @Test
+    void ownerDecisionsAreAppliedToAllBookingsAtOnce() {
+        User host = fixtures.createUser("decide-host");
+        User booker = fixtures.createUser("decide-booker");
+        Item first = fixtures.createItem(host);
+        Item second = fixtures.createItem(host);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        BookingDto approved = bookingService.create(booker.getId(), createBookingDto(first, start, start.plusDays(1)));
+        BookingDto rejected = bookingService.create(booker.getId(), createBookingDto(second, start, start.plusDays(1)));
+
+        List<BookingDto> decided = bookingService.decide(host.getId(), List.of(
+                new BookingDecisionDto(rejected.getId(), false),
+                new BookingDecisionDto(approved.getId(), true)));
+
+        assertEquals(List.of(rejected.getId(), approved.getId()), decided.stream().map(BookingDto::getId).toList());
+        assertEquals(List.of(State.REJECTED, State.APPROVED), decided.stream().map(BookingDto::getStatus).toList());
+        assertEquals(1, bookingRepository.findById(approved.getId()).orElseThrow().getVersion());
+
+        //The rejected period is free again
+        bookingService.create(booker.getId(), createBookingDto(second, start, start.plusDays(1)));
+
+        assertThrows(NotAvailableException.class, () -> bookingService.decide(host.getId(),
+                List.of(new BookingDecisionDto(approved.getId(), false))));
+    }
+
+    @Test
+    void ownerDecisionsFailAsWholeForForeignBooking() {
+        User host = fixtures.createUser("decide-foreign-host");
+        User other = fixtures.createUser("decide-foreign-other");
+        User booker = fixtures.createUser("decide-foreign-booker");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        BookingDto own = bookingService.create(booker.getId(),
+                createBookingDto(fixtures.createItem(host), start, start.plusDays(1)));
+        BookingDto foreign = bookingService.create(booker.getId(),
+                createBookingDto(fixtures.createItem(other), start, start.plusDays(1)));
+
+        assertThrows(UnauthorizedAccessException.class, () -> bookingService.decide(host.getId(), List.of(
+                new BookingDecisionDto(own.getId(), true),
+                new BookingDecisionDto(foreign.getId(), true))));
+
+        assertEquals(State.WAITING, bookingRepository.findById(own.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void stateFiltersAreExactWhetherPhasesAreRefreshedOrNot() {
+        User host = fixtures.createUser("phase-host");
+        User booker = fixtures.createUser("phase-booker");
+        Item item = fixtures.createItem(host);
+        LocalDateTime now = LocalDateTime.now();
+
+        //Inserted with the default FUTURE phase, as if the scheduler has not run since they were created
+        fixtures.insertBookings(List.of(bookingRow(booker, item, now.minusDays(3), now.minusDays(2)),
+                bookingRow(booker, item, now.minusDays(1), now.minusSeconds(1)),
+                bookingRow(booker, item, now.minusHours(1), now.plusHours(1)),
+                bookingRow(booker, item, now.minusSeconds(1), now.plusDays(1)),
+                bookingRow(booker, item, now.plusDays(2), now.plusDays(3))));
+
+        Map<StateDto, Integer> expected = Map.of(StateDto.PAST, 2, StateDto.CURRENT, 2, StateDto.FUTURE, 1,
+                StateDto.ALL, 5);
+
+        expected.forEach((state, count) -> assertEquals(count,
+                bookingService.findByUserId(booker.getId(), state, null, PAGE_LIMIT).getContent().size(),
+                "before refresh: " + state));
+
+        bookingPhaseScheduler.advance();
+
+        assertEquals(List.of(Phase.FUTURE, Phase.CURRENT, Phase.CURRENT, Phase.PAST, Phase.PAST),
+                jdbcTemplate.queryForList("SELECT phase FROM bookings WHERE booker_id = ? ORDER BY booking_start DESC",
+                        String.class, booker.getId()).stream().map(Phase::valueOf).toList());
+        expected.forEach((state, count) -> assertEquals(count,
+                bookingService.findByOwnerId(host.getId(), state, null, PAGE_LIMIT).getContent().size(),
+                "after refresh: " + state));
+    }
+
+    @Test
+    void ownerSummaryMatchesListsAndIsEvictedByWrites() {
+        User host = fixtures.createUser("summary-host");
+        User booker = fixtures.createUser("summary-booker");
+        Item item = fixtures.createItem(host);
+        LocalDateTime now = LocalDateTime.now();
+
+        fixtures.insertBookings(List.of(bookingRow(booker, item, now.minusDays(3), now.minusDays(2)),
+                bookingRow(booker, item, now.minusHours(1), now.plusHours(1)),
+                bookingRow(booker, item, now.plusDays(2), now.plusDays(3)),
+                bookingRow(booker, item, now.plusDays(4), now.plusDays(5), State.REJECTED)));
+        bookingService.create(booker.getId(), createBookingDto(item, now.plusDays(6), now.plusDays(7)));
+
+        BookingSummaryDto summary = bookingService.findOwnerSummary(host.getId());
+
+        assertEquals(new BookingSummaryDto(5, 1, 1, 1, 1, 1), summary);
+        Map.of(StateDto.ALL, summary.getAll(), StateDto.WAITING, summary.getWaiting(),
+                        StateDto.REJECTED, summary.getRejected(), StateDto.CURRENT, summary.getCurrent(),
+                        StateDto.PAST, summary.getPast(), StateDto.FUTURE, summary.getFuture())
+                .forEach((state, count) -> assertEquals(count.intValue(),
+                        bookingService.findByOwnerId(host.getId(), state, null, PAGE_LIMIT).getContent().size(),
+                        state.name()));
+
+        BookingDto created = bookingService.create(booker.getId(),
+                createBookingDto(item, now.plusDays(8), now.plusDays(9)));
+        assertEquals(2, bookingService.findOwnerSummary(host.getId()).getWaiting());
+
+        bookingService.approve(host.getId(), created.getId(), true);
+        assertEquals(2, bookingService.findOwnerSummary(host.getId()).getFuture());
+    }
+
+    @Test
+    void ownerBookingListAllocatesLessThanEntityMapping() {
+        User host = fixtures.createUser("allocation-host");
+        User booker = fixtures.createUser("allocation-booker");
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(fixtures.createItem(host));
+        }
+
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        fixtures.insertBookings(IntStream.range(0, OWNER_BOOKINGS)
+                .mapToObj(i -> bookingRow(booker, items.get(i % items.size()),
+                        start.plusHours(i), start.plusHours(i).plusMinutes(30)))
+                .toList());
+
+        Supplier<Integer> projection = () -> readAllPages(cursor ->
+                bookingService.findByOwnerId(host.getId(), StateDto.ALL, cursor, PAGE_LIMIT));
+        Supplier<Integer> entities = () -> readAllPages(cursor ->
+                transactionTemplate.execute(status -> findOwnerPageThroughEntities(host.getId(), cursor)));
+
+        assertEquals(OWNER_BOOKINGS, entities.get());
+        assertEquals(OWNER_BOOKINGS, projection.get());
+
+        long entityBytes = allocatedBytes(entities);
+        long projectionBytes = allocatedBytes(projection);
+        log.info("Reading {} owner bookings in pages of {}: entity mapping {} KB, projection {} KB",
+                OWNER_BOOKINGS, PAGE_LIMIT, entityBytes / 1024, projectionBytes / 1024);
+
+        assertTrue(projectionBytes < entityBytes);
+    }
+
+    //Previous list path: managed entities with fetched associations mapped to DTOs afterwards
+    private CursorPage<BookingDto> findOwnerPageThroughEntities(long ownerId, String cursor) {
+        QBooking booking = QBooking.booking;
+        Cursor after = Cursor.decode(cursor);
+        LocalDateTime afterStart = after == null ? null : LocalDateTime.parse(after.getKey());
+
+        List<Booking> bookings = bookingRepository.findBy(booking.item.host.id.eq(ownerId)
+                        .and(after == null ? null : booking.start.lt(afterStart)
+                                .or(booking.start.eq(afterStart).and(booking.id.lt(after.getId())))),
+                query -> query
+                        .project("booker", "item")
+                        .sortBy(Sort.by(Sort.Order.desc("start"), Sort.Order.desc("id")))
+                        .limit(PAGE_LIMIT + 1)
+                        .all());
+
+        return CursorPage.of(bookings,
+                PAGE_LIMIT,
+                next -> Cursor.encode(next.getStart().toString(), next.getId()),
+                BookingMapper.INSTANCE::getBookingDto);
+    }
+
+    private int readAllPages(Function<String, CursorPage<BookingDto>> pages) {
+        int read = 0;
+        String cursor = null;
+        do {
+            CursorPage<BookingDto> page = pages.apply(cursor);
+            read += page.getContent().size();
+            cursor = page.getNext();
+        } while (cursor != null);
+        return read;
+    }
+
+    //Bytes allocated by the current thread, averaged over a few runs after a warm-up
+    private long allocatedBytes(Supplier<?> task) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int runs = 3;
+
+        task.get();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < runs; i++) {
+            task.get();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / runs;
+    }
+
+    //Starts all tasks at once and returns how many of them returned true
+    private int runConcurrently(int threads, IntPredicate task) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startSignal = new CountDownLatch(1);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                Callable<Boolean> callable = () -> {
+                    startSignal.await();
+                    return task.test(thread);
+                };
+                results.add(executor.submit(callable));
+            }
+
+            startSignal.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BookingDto createBookingDto(Item item, LocalDateTime start, LocalDateTime end) {
+        return BookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
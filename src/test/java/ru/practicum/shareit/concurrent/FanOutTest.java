@@ -0,0 +1,84 @@
+package ru.practicum.shareit.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.exceptions.FanOutTimeoutException;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.metrics.RequestQueryStats;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "shareit.fan-out.timeout=500ms")
+class FanOutTest {
+    @Autowired
+    private FanOut fanOut;
+
+    @Test
+    void tasksRunConcurrently() {
+        CountDownLatch started = new CountDownLatch(2);
+
+        //Each task waits for the other one, run one after another both would time out
+        CompletableFuture<Boolean> first = fanOut.submit(() -> awaitOther(started));
+        CompletableFuture<Boolean> second = fanOut.submit(() -> awaitOther(started));
+
+        assertTrue(fanOut.join(first));
+        assertTrue(fanOut.join(second));
+    }
+
+    @Test
+    void joinRethrowsExceptionOfTask() {
+        CompletableFuture<Object> future = fanOut.submit(() -> {
+            throw new NotFoundException("Item is not found with id = 1");
+        });
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> fanOut.join(future));
+        assertEquals("Item is not found with id = 1", e.getMessage());
+    }
+
+    @Test
+    void joinFailsWhenTaskTimesOut() {
+        CompletableFuture<Object> future = fanOut.submit(() -> {
+            sleep(2_000);
+            return null;
+        });
+
+        assertThrows(FanOutTimeoutException.class, () -> fanOut.join(future));
+    }
+
+    @Test
+    void taskSeesStatsOfRequest() {
+        RequestQueryStats stats = RequestQueryStats.start();
+
+        try {
+            assertSame(stats, fanOut.join(fanOut.submit(RequestQueryStats::current)));
+        } finally {
+            RequestQueryStats.end();
+        }
+    }
+
+    private boolean awaitOther(CountDownLatch started) {
+        started.countDown();
+        try {
+            return started.await(400, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionControlDataSourceTest {
+    private final PoolStub pool = new PoolStub();
+
+    private final AdmissionControlDataSource dataSource =
+            new AdmissionControlDataSource(pool, 2, Duration.ofMillis(50));
+
+    @Test
+    void permitIsReturnedOnceOnFirstClose() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        connection.close();
+        connection.close();
+
+        assertEquals(2, dataSource.getAvailablePermits());
+        assertEquals(2, pool.closed.get());
+    }
+
+    @Test
+    void callerOverPermitsTimesOutAndIsAdmittedAfterClose() throws SQLException {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(2, pool.opened.get());
+
+        first.close();
+        dataSource.getConnection().close();
+        second.close();
+
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void permitIsReturnedWhenThePoolFails() {
+        pool.failing = true;
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    //Hands out connections that only count their closing
+    private static class PoolStub extends AbstractDataSource {
+        private final AtomicInteger opened = new AtomicInteger();
+
+        private final AtomicInteger closed = new AtomicInteger();
+
+        private volatile boolean failing;
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("Pool is down");
+            }
+
+            opened.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close")) {
+                            closed.incrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+    }
+}
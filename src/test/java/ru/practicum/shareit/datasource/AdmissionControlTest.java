@@ -0,0 +1,55 @@
+package ru.practicum.shareit.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "shareit.db.admission.enabled=true",
+        "shareit.db.admission.permits=2",
+        "shareit.db.admission.timeout=100ms"})
+@AutoConfigureMockMvc
+class AdmissionControlTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    //While every permit is held, a request waits out the timeout and is turned away instead of failing with 500
+    @Test
+    void requestOverPermitsIsServiceUnavailable() throws Exception {
+        List<Connection> held = new ArrayList<>();
+        try {
+            held.add(dataSource.getConnection());
+            held.add(dataSource.getConnection());
+
+            assertEquals(0, meterRegistry.get("shareit.db.admission.available").gauge().value());
+
+            mvc.perform(get("/users"))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+
+        mvc.perform(get("/users"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.shareit.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.TestFixtures.bookingRow;
+
+//Two separate H2 databases without replication between them: a row tells which one served the read
+@SpringBootTest(properties = {
+        "shareit.datasource.replica.jdbc-url=jdbc:h2:mem:shareit-replica;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.username=sa",
+        "shareit.db.admission.enabled=true"})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTest {
+    private static final long REPLICA_ONLY_USER_ID = 900_001;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("userServiceV1")
+    private UserService userService;
+
+    @Autowired
+    @Qualifier("itemServiceV1")
+    private ItemService itemService;
+
+    @Autowired
+    @Qualifier("bookingServiceV1")
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replicaDataSource);
+    }
+
+    @Test
+    void serviceReadsGoToTheReplicaAndOtherReadsToThePrimary() {
+        new JdbcTemplate(replicaDataSource).update("MERGE INTO users (id, name, email) KEY (id) VALUES (?, ?, ?)",
+                REPLICA_ONLY_USER_ID, "replica-only", "replica-only@mail.ru");
+
+        assertEquals("replica-only", userService.findById(REPLICA_ONLY_USER_ID).getName());
+        assertFalse(userRepository.existsById(REPLICA_ONLY_USER_ID));
+    }
+
+    //A replica row may be behind the primary, once cached it would be served in place of the primary one
+    @Test
+    void replicaReadsDoNotFillTheSecondLevelCache() {
+        new JdbcTemplate(replicaDataSource).update("MERGE INTO users (id, name, email) KEY (id) VALUES (?, ?, ?)",
+                REPLICA_ONLY_USER_ID, "replica-only", "replica-only@mail.ru");
+        User primaryUser = fixtures.createUser("cache-primary");
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(User.class);
+
+        userService.findById(REPLICA_ONLY_USER_ID);
+        assertFalse(cache.contains(User.class, REPLICA_ONLY_USER_ID));
+
+        //Primary reads still fill it
+        userRepository.findById(primaryUser.getId());
+        assertTrue(cache.contains(User.class, primaryUser.getId()));
+    }
+
+    //The rows are on the primary only, a read served by the replica would not see them
+    @Test
+    void readsThatFillCachesGoToThePrimary() {
+        User host = fixtures.createUser("cached-host");
+        User booker = fixtures.createUser("cached-booker");
+        Item item = fixtures.createItem(host);
+        LocalDateTime now = LocalDateTime.now();
+        fixtures.insertBookings(List.<Object[]>of(bookingRow(booker, item, now.minusDays(2), now.minusDays(1)),
+                bookingRow(booker, item, now.plusDays(1), now.plusDays(2))));
+
+        ItemDto card = itemService.findCard(item.getId(), host.getId()).getItem();
+        assertNotNull(card.getLastBooking());
+        assertNotNull(card.getNextBooking());
+
+        assertEquals(2, bookingService.findOwnerSummary(host.getId()).getAll());
+
+        assertEquals(1, itemService.findAvailability(item.getId(), now, now.plusDays(3)).getBusy().size());
+    }
+
+    @Test
+    void writerReadsItsWritesFromThePrimary() throws Exception {
+        String response = mvc.perform(post("/users").with(address("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"writer\", \"email\": \"writer@mail.ru\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readValue(response, UserDto.class).getId();
+
+        //The write is not on the replica, another caller does not see it yet
+        mvc.perform(get("/users/" + id).with(address("10.0.0.2")))
+                .andExpect(status().isNotFound());
+
+        mvc.perform(get("/users/" + id).with(address("10.0.0.1")))
+                .andExpect(status().isOk());
+    }
+
+    //Values are not pinned: the booking phase scheduler may hold a primary connection at any moment
+    @Test
+    void admissionOfBothPoolsIsMonitored() {
+        for (String pool : List.of("primary", "replica")) {
+            assertNotNull(meterRegistry.find("shareit.db.admission.available").tag("pool", pool).gauge());
+            assertNotNull(meterRegistry.find("shareit.db.admission.waiting").tag("pool", pool).gauge());
+        }
+    }
+
+    @Test
+    void windowEnds() {
+        ReadYourWritesWindow closed = new ReadYourWritesWindow(Duration.ZERO);
+        ReadYourWritesWindow open = new ReadYourWritesWindow(Duration.ofMinutes(1));
+
+        closed.wrote("user:1");
+        open.wrote("user:1");
+
+        assertFalse(closed.isWithin("user:1"));
+        assertTrue(open.isWithin("user:1"));
+        assertFalse(open.isWithin("user:2"));
+    }
+
+    private static RequestPostProcessor address(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.etag;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.service.ItemCardCache;
+import ru.practicum.shareit.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.TestFixtures.bookingRow;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemCardCache itemCardCache;
+
+    @Test
+    void userIsNotModifiedUntilItChanges() throws Exception {
+        User user = fixtures.createUser("etag-user");
+        String uri = "/users/" + user.getId();
+
+        String etag = fetchETag(uri, user.getId());
+
+        mvc.perform(get(uri).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mvc.perform(patch(uri).contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"renamed\"}"))
+                .andExpect(status().isOk());
+
+        assertNotEquals(etag, fetchETag(uri, user.getId(), etag));
+    }
+
+    @Test
+    void itemCardIsNotModifiedUntilItChanges() throws Exception {
+        User host = fixtures.createUser("etag-host");
+        Item item = fixtures.createItem(host);
+        String uri = "/items/" + item.getId();
+
+        String etag = fetchETag(uri, host.getId());
+
+        mvc.perform(get(uri).header(Constants.HEADER_FOR_USER_ID, host.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(patch(uri).header(Constants.HEADER_FOR_USER_ID, host.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"changed\"}"))
+                .andExpect(status().isOk());
+
+        assertNotEquals(etag, fetchETag(uri, host.getId(), etag));
+    }
+
+    @Test
+    void itemCardMissingFromCacheIsNotModified() throws Exception {
+        User host = fixtures.createUser("etag-miss-host");
+        Item item = fixtures.createItem(host);
+        String uri = "/items/" + item.getId();
+
+        String etag = fetchETag(uri, host.getId());
+        itemCardCache.evict(item.getId());
+
+        mvc.perform(get(uri).header(Constants.HEADER_FOR_USER_ID, host.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void bookingIsNotModifiedOnlyForItsParticipants() throws Exception {
+        User host = fixtures.createUser("etag-booking-host");
+        User booker = fixtures.createUser("etag-booker");
+        User stranger = fixtures.createUser("etag-stranger");
+        Item item = fixtures.createItem(host);
+
+        LocalDateTime now = LocalDateTime.now();
+        fixtures.insertBookings(List.<Object[]>of(
+                bookingRow(booker, item, now.plusDays(1), now.plusDays(2), State.WAITING)));
+        Long bookingId = jdbcTemplate.queryForObject("SELECT id FROM bookings WHERE booker_id = ?",
+                Long.class, booker.getId());
+        String uri = "/bookings/" + bookingId;
+
+        String etag = fetchETag(uri, booker.getId());
+
+        mvc.perform(get(uri).header(Constants.HEADER_FOR_USER_ID, host.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get(uri).header(Constants.HEADER_FOR_USER_ID, stranger.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isForbidden());
+
+        mvc.perform(patch(uri).param("approved", "true").header(Constants.HEADER_FOR_USER_ID, host.getId()))
+                .andExpect(status().isOk());
+
+        assertNotEquals(etag, fetchETag(uri, booker.getId(), etag));
+    }
+
+    private String fetchETag(String uri, long userId) throws Exception {
+        String etag = mvc.perform(get(uri).header(Constants.HEADER_FOR_USER_ID, userId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotNull(etag);
+        return etag;
+    }
+
+    //A stale tag gets the full response with the new tag
+    private String fetchETag(String uri, long userId, String staleETag) throws Exception {
+        return mvc.perform(get(uri).header(Constants.HEADER_FOR_USER_ID, userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, staleETag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.item.dto.IntervalDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.TestFixtures.bookingRow;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemControllerTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("userServiceV1")
+    private UserService userService;
+
+    @Autowired
+    @Qualifier("itemServiceV1")
+    private ItemService itemService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    //Cached JSON must be exactly what the message converter would have written for the DTOs
+    @Test
+    void readyJsonMatchesMappedResponse() throws Exception {
+        UserDto host = userService.create(UserDto.builder()
+                .name("json-host")
+                .email("json-host@mail.ru")
+                .build());
+        ItemDto item = itemService.create(ItemDto.builder()
+                .name("Шуруповерт")
+                .description("pre-serialized screwdriver")
+                .available(true)
+                .build(), host.getId());
+
+        mvc.perform(get("/items/" + item.getId()).header(Constants.HEADER_FOR_USER_ID, host.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(objectMapper.writeValueAsString(
+                        itemService.findById(item.getId(), host.getId())), true));
+
+        mvc.perform(get("/items/search").param("text", "pre-serialized"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(
+                        itemService.findByText("pre-serialized", null, 10).getContent()), true));
+
+        mvc.perform(patch("/items/" + item.getId()).header(Constants.HEADER_FOR_USER_ID, host.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"pre-serialized drill\"}"))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/items/search").param("text", "pre-serialized").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(Constants.HEADER_FOR_NEXT_CURSOR))
+                .andExpect(content().json("[{\"id\": " + item.getId()
+                        + ", \"description\": \"pre-serialized drill\"}]"));
+    }
+
+    //Overlapping rows stored before overlaps were checked are merged into one busy interval
+    @Test
+    void availabilityListsBusyAndFreeIntervalsOfThePeriod() throws Exception {
+        User booker = fixtures.createUser("availability-booker");
+        Item item = fixtures.createItem(fixtures.createUser("availability-host"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        fixtures.insertBookings(List.of(bookingRow(booker, item, start, start.plusDays(2)),
+                bookingRow(booker, item, start.plusDays(1), start.plusDays(1).plusHours(1)),
+                bookingRow(booker, item, start.plusDays(3), start.plusDays(4))));
+
+        ItemAvailabilityDto expected = ItemAvailabilityDto.builder()
+                .itemId(item.getId())
+                .from(start.minusDays(1))
+                .to(start.plusDays(5))
+                .busy(List.of(new IntervalDto(start, start.plusDays(2)),
+                        new IntervalDto(start.plusDays(3), start.plusDays(4))))
+                .free(List.of(new IntervalDto(start.minusDays(1), start),
+                        new IntervalDto(start.plusDays(2), start.plusDays(3)),
+                        new IntervalDto(start.plusDays(4), start.plusDays(5))))
+                .build();
+
+        mvc.perform(get("/items/" + item.getId() + "/availability")
+                        .param("from", start.minusDays(1).toString())
+                        .param("to", start.plusDays(5).toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(expected), true));
+
+        mvc.perform(get("/items/" + item.getId() + "/availability")
+                        .param("from", start.toString())
+                        .param("to", start.toString()))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ItemCardCacheTest {
+    private static final long BOOKER = 10;
+
+    @Test
+    void cardLoadedBeforeEvictionIsNotPut() {
+        ItemCardCache cache = new ItemCardCache(100);
+        long stamp = cache.stamp(1);
+
+        cache.evict(1);
+        cache.put(1, card(1), null, Set.of(), stamp);
+
+        assertNull(cache.get(1));
+
+        ItemCard card = card(1);
+        cache.put(1, card, null, Set.of(), cache.stamp(1));
+
+        assertSame(card, cache.get(1));
+    }
+
+    @Test
+    void userEvictionDropsCardsShowingTheUser() {
+        ItemCardCache cache = new ItemCardCache(100);
+        ItemCard shown = card(1);
+        ItemCard other = card(2);
+        cache.put(1, shown, null, Set.of(BOOKER), cache.stamp(1));
+        cache.put(2, other, null, Set.of(BOOKER + 1), cache.stamp(2));
+        long stamp = cache.stamp(3);
+
+        cache.evictUser(BOOKER);
+        cache.put(3, card(3), null, Set.of(), stamp);
+
+        assertNull(cache.get(1));
+        assertSame(other, cache.get(2));
+        assertNull(cache.get(3));
+    }
+
+    @Test
+    void expiredCardIsNotReturned() {
+        ItemCardCache cache = new ItemCardCache(100);
+        cache.put(1, card(1), LocalDateTime.now().minusSeconds(1), Set.of(), cache.stamp(1));
+
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void leastRecentlyReadCardsAreDroppedPastTheSize() throws InterruptedException {
+        ItemCardCache cache = new ItemCardCache(10);
+        ItemCard kept = card(0);
+        cache.put(0, kept, null, Set.of(), cache.stamp(0));
+        for (long id = 1; id < 10; id++) {
+            cache.put(id, card(id), null, Set.of(), cache.stamp(id));
+        }
+        Thread.sleep(1);
+        cache.get(0);
+
+        cache.put(10, card(10), null, Set.of(), cache.stamp(10));
+
+        assertSame(kept, cache.get(0));
+        assertEquals(9, countCached(cache, 11));
+    }
+
+    private static int countCached(ItemCardCache cache, long ids) {
+        int count = 0;
+        for (long id = 0; id < ids; id++) {
+            if (cache.get(id) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static ItemCard card(long itemId) {
+        return new ItemCard(ItemDto.builder().id(itemId).build(), new byte[0], "\"" + itemId + "\"");
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemIdSetTest {
+    private static final long BLOCK = 1L << 16;
+
+    //Enough ids in one block to turn it into a bitset and back into an array
+    @Test
+    void blockKeepsItsIdsWhileSwitchingRepresentation() {
+        ItemIdSet set = new ItemIdSet();
+        NavigableSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 6000; i++) {
+            long id = BLOCK + random.nextInt((int) BLOCK);
+            set.set(id);
+            expected.add(id);
+        }
+        assertHolds(expected, set);
+
+        for (Long id : new ArrayList<>(expected).subList(0, expected.size() - 100)) {
+            set.clear(id);
+            expected.remove(id);
+        }
+        assertHolds(expected, set);
+
+        expected.forEach(set::clear);
+        assertTrue(set.isEmpty());
+        assertEquals(-1, set.nextSetBit(0));
+    }
+
+    @Test
+    void commonIdsAreFoundAcrossBlocks() {
+        ItemIdSet odd = new ItemIdSet();
+        ItemIdSet everyThird = new ItemIdSet();
+        ItemIdSet sparse = new ItemIdSet();
+
+        for (long id = 0; id < 3 * BLOCK; id++) {
+            odd.set(id, id % 2 == 1);
+            everyThird.set(id, id % 3 == 0);
+        }
+        sparse.set(3);
+        sparse.set(4);
+        sparse.set(BLOCK + 3);
+        sparse.set(2 * BLOCK + 1);
+
+        List<Long> common = new ArrayList<>();
+        List<ItemIdSet> sets = List.of(sparse, odd, everyThird);
+        for (long id = ItemIdSet.nextCommonBit(sets, 0); id >= 0; id = ItemIdSet.nextCommonBit(sets, id + 1)) {
+            common.add(id);
+        }
+
+        assertEquals(List.of(3L, 2 * BLOCK + 1), common);
+    }
+
+    private static void assertHolds(NavigableSet<Long> expected, ItemIdSet set) {
+        assertEquals(expected.size(), set.size());
+
+        List<Long> actual = new ArrayList<>();
+        for (long id = set.nextSetBit(0); id >= 0; id = set.nextSetBit(id + 1)) {
+            actual.add(id);
+        }
+
+        assertEquals(new ArrayList<>(expected), actual);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Item;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ItemSearchIndexTest {
+    private static final long BEYOND_INT = Integer.MAX_VALUE + 1L;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @AfterEach
+    void tearDown() {
+        itemSearchIndex.remove(Integer.MAX_VALUE);
+        itemSearchIndex.remove(BEYOND_INT);
+        itemSearchIndex.remove(BEYOND_INT + 70_000);
+    }
+
+    @Test
+    void itemsWithIdsBeyondIntRangeAreIndexedInIdOrder() {
+        itemSearchIndex.put(item(BEYOND_INT + 70_000, "Zephyrometer far"));
+        itemSearchIndex.put(item(BEYOND_INT, "Zephyrometer near"));
+        itemSearchIndex.put(item(Integer.MAX_VALUE, "Zephyrometer last int"));
+
+        assertEquals(List.of((long) Integer.MAX_VALUE, BEYOND_INT, BEYOND_INT + 70_000),
+                ids(itemSearchIndex.search("zephyrometer", 0, 10)));
+        assertEquals(List.of(BEYOND_INT + 70_000),
+                ids(itemSearchIndex.search("zephyrometer", BEYOND_INT, 10)));
+        assertEquals(List.of(BEYOND_INT),
+                ids(itemSearchIndex.search("near", Integer.MAX_VALUE, 10)));
+    }
+
+    @Test
+    void removedAndUnavailableItemsAreNotFound() {
+        itemSearchIndex.put(item(BEYOND_INT, "Zephyrometer near"));
+        itemSearchIndex.put(item(BEYOND_INT + 70_000, "Zephyrometer far"));
+
+        itemSearchIndex.remove(BEYOND_INT);
+        Item unavailable = item(BEYOND_INT + 70_000, "Zephyrometer far");
+        unavailable.setAvailable(false);
+        itemSearchIndex.put(unavailable);
+
+        assertTrue(itemSearchIndex.search("zephyrometer", 0, 10).isEmpty());
+    }
+
+    @Test
+    void shortQuerySkipsUnavailableItemsBetweenMatches() {
+        Item unavailable = item(BEYOND_INT, "Zephyrometer near");
+        unavailable.setAvailable(false);
+        itemSearchIndex.put(item(Integer.MAX_VALUE, "Zephyrometer last int"));
+        itemSearchIndex.put(unavailable);
+        itemSearchIndex.put(item(BEYOND_INT + 70_000, "Zephyrometer far"));
+
+        assertEquals(List.of((long) Integer.MAX_VALUE, BEYOND_INT + 70_000),
+                ids(itemSearchIndex.search("zep", Integer.MAX_VALUE - 1L, 10)));
+        assertEquals(List.of(BEYOND_INT + 70_000),
+                ids(itemSearchIndex.search("zep", Integer.MAX_VALUE, 10)));
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).toList();
+    }
+
+    private static Item item(long id, String name) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description("Weather instrument")
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.entity.Booking;
+import ru.practicum.shareit.booking.entity.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.entity.Comment;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.entity.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest
+class ItemServiceImplTest {
+    @Autowired
+    @Qualifier("itemServiceV1")
+    private ItemService itemService;
+
+    @Autowired
+    @Qualifier("userServiceV1")
+    private UserService userService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void findAllByUserRunsSameNumberOfQueriesForAnyNumberOfItems() {
+        User smallHost = createHostWithItems("small", 1);
+        User largeHost = createHostWithItems("large", 25);
+
+        long smallQueries = countQueries(smallHost);
+        long largeQueries = countQueries(largeHost);
+
+        assertEquals(smallQueries, largeQueries);
+    }
+
+    @Test
+    void findAllByUserLoadsLastAndNextBookings() {
+        User host = createHostWithItems("cards", 3);
+
+        Collection<ItemDto> items = itemService.findAllByUser(host.getId(), null, 100).getContent();
+
+        assertEquals(3, items.size());
+        for (ItemDto item : items) {
+            assertEquals(1, item.getComments().size());
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+        }
+    }
+
+    //Cards show names of bookers and comment authors, so changing such a user drops the cached card
+    @Test
+    void cardIsEvictedWhenUserShownOnItChanges() {
+        User host = createHostWithItems("card-user", 1);
+        long itemId = itemService.findAllByUser(host.getId(), null, 1).getContent().getFirst().getId();
+
+        ItemCard card = itemService.findCard(itemId, host.getId());
+        long bookerId = card.getItem().getLastBooking().getBooker().getId();
+        assertSame(card, itemService.findCard(itemId, host.getId()));
+
+        userService.update(bookerId, UserDto.builder().name("card-user renamed").build());
+
+        ItemCard renamed = itemService.findCard(itemId, host.getId());
+        assertNotEquals(card.getEtag(), renamed.getEtag());
+        assertEquals("card-user renamed", renamed.getItem().getLastBooking().getBooker().getName());
+        assertEquals("card-user renamed", renamed.getItem().getComments().iterator().next().getAuthorName());
+
+        userService.update(host.getId(), UserDto.builder().name("card-user host").build());
+        assertSame(renamed, itemService.findCard(itemId, host.getId()));
+    }
+
+    private long countQueries(User host) {
+        return fixtures.countQueries(() -> itemService.findAllByUser(host.getId(), null, 100));
+    }
+
+    private User createHostWithItems(String name, int count) {
+        User host = fixtures.createUser(name + "-host");
+        User booker = fixtures.createUser(name + "-booker");
+
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < count; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .host(host)
+                    .name(name + " item " + i)
+                    .description("description")
+                    .available(true)
+                    .build());
+
+            bookingRepository.save(createBooking(booker, item, now.minusDays(10), now.minusDays(5)));
+            bookingRepository.save(createBooking(booker, item, now.plusDays(5), now.plusDays(10)));
+
+            commentRepository.save(Comment.builder()
+                    .author(booker)
+                    .item(item)
+                    .text("comment")
+                    .created(now)
+                    .build());
+        }
+
+        return host;
+    }
+
+    private Booking createBooking(User booker, Item item, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .booker(booker)
+                .item(item)
+                .start(start)
+                .end(end)
+                .status(State.APPROVED)
+                .build();
+    }
+}
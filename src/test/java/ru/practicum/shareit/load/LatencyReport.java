@@ -0,0 +1,89 @@
+package ru.practicum.shareit.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencies and response codes collected per endpoint during a load run.
+ */
+class LatencyReport {
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+        endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).record(nanos, status);
+    }
+
+    long serverErrors() {
+        return endpoints.values().stream()
+                .mapToLong(endpoint -> endpoint.serverErrors)
+                .sum();
+    }
+
+    List<String> lines(double seconds) {
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,rps,p50_ms,p95_ms,p99_ms,max_ms,client_errors,server_errors");
+
+        new TreeMap<>(endpoints).forEach((name, endpoint) -> lines.add(endpoint.line(name, seconds)));
+        return lines;
+    }
+
+    void writeCsv(Path path, double seconds) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, lines(seconds));
+    }
+
+    private static class Endpoint {
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long clientErrors;
+
+        private long serverErrors;
+
+        synchronized void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+
+            if (status >= 500) {
+                serverErrors++;
+            } else if (status >= 400) {
+                clientErrors++;
+            }
+        }
+
+        synchronized String line(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            return String.format(Locale.ROOT, "%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%d,%d",
+                    name,
+                    count,
+                    count / seconds,
+                    percentile(sorted, 50),
+                    percentile(sorted, 95),
+                    percentile(sorted, 99),
+                    count == 0 ? 0 : sorted[count - 1] / 1e6,
+                    clientErrors,
+                    serverErrors);
+        }
+
+        private static double percentile(long[] sorted, int percent) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
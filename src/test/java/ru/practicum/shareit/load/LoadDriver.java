@@ -0,0 +1,162 @@
+package ru.practicum.shareit.load;
+
+import ru.practicum.shareit.booking.dto.StateDto;
+import ru.practicum.shareit.config.Constants;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends a weighted mix of requests to a running application from concurrent clients.
+ */
+class LoadDriver {
+    private static final StateDto[] STATES = StateDto.values();
+
+    private final String baseUri;
+
+    private final SyntheticDataset dataset;
+
+    private final List<Operation> operations;
+
+    private final int totalWeight;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    LoadDriver(int port, SyntheticDataset dataset) {
+        this.baseUri = "http://localhost:" + port;
+        this.dataset = dataset;
+        this.operations = operations();
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    //Requests started during the warm-up are sent but not recorded
+    LatencyReport run(int clients, int warmupSeconds, int seconds) throws InterruptedException, ExecutionException {
+        LatencyReport report = new LatencyReport();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Operation operation = pick();
+                        HttpRequest request = operation.request().get();
+
+                        long begin = System.nanoTime();
+                        int status = send(request);
+                        long took = System.nanoTime() - begin;
+
+                        if (begin >= warmupEnd) {
+                            report.record(operation.endpoint(), took, status);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        return report;
+    }
+
+    //Read-heavy mix, hot items and big hosts are picked more often just as they are in the dataset
+    private List<Operation> operations() {
+        return List.of(
+                new Operation("GET /items/{id}", 25, () -> get("/items/" + dataset.itemPopularity.sample(),
+                        dataset.randomUser())),
+                new Operation("GET /items", 10, () -> get("/items", dataset.hostPopularity.sample())),
+                new Operation("GET /items/search", 15, () -> get("/items/search?text=" + dataset.randomWord(),
+                        dataset.randomUser())),
+                new Operation("GET /items/{id}/availability", 5, this::availability),
+                new Operation("GET /bookings/owner", 15, () -> get("/bookings/owner?state=" + randomState(),
+                        dataset.hostPopularity.sample())),
+                new Operation("GET /bookings", 10, () -> get("/bookings?state=" + randomState(),
+                        dataset.randomBooker())),
+                new Operation("GET /users/{id}", 5, () -> get("/users/" + dataset.randomUser(),
+                        dataset.randomUser())),
+                new Operation("GET /users", 2, () -> get("/users", dataset.randomUser())),
+                new Operation("POST /bookings", 13, this::createBooking));
+    }
+
+    private HttpRequest availability() {
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        return get("/items/" + dataset.itemPopularity.sample() + "/availability?from=" + from
+                + "&to=" + from.plusDays(30), dataset.randomUser());
+    }
+
+    //Far future slots of popular items, some of them collide and are answered with 400
+    private HttpRequest createBooking() {
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                .plusYears(50)
+                .plusHours(ThreadLocalRandom.current().nextInt(100_000) * SyntheticDataset.SLOT_HOURS);
+        String body = "{\"itemId\":" + dataset.itemPopularity.sample()
+                + ",\"start\":\"" + start + "\",\"end\":\"" + start.plusHours(SyntheticDataset.SLOT_HOURS - 1)
+                + "\"}";
+
+        return HttpRequest.newBuilder(URI.create(baseUri + "/bookings"))
+                .header(Constants.HEADER_FOR_USER_ID, String.valueOf(dataset.randomBooker()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path, long userId) {
+        return HttpRequest.newBuilder(URI.create(baseUri + path))
+                .header(Constants.HEADER_FOR_USER_ID, String.valueOf(userId))
+                .GET()
+                .build();
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return 599;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 599;
+        }
+    }
+
+    private Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+
+        for (Operation operation : operations) {
+            roll -= operation.weight();
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static StateDto randomState() {
+        return STATES[ThreadLocalRandom.current().nextInt(STATES.length)];
+    }
+
+    private record Operation(String endpoint, int weight, Supplier<HttpRequest> request) {
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the real controllers over HTTP from many concurrent clients against a synthetic H2 dataset
+ * and reports latency percentiles and throughput per endpoint to the log and target/load-report.csv.
+ * Runs only with the load profile: {@code mvn -Pload test}.
+ * Dataset size and load shape are set with load.users, load.items, load.bookings, load.clients,
+ * load.warmup and load.seconds system properties.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:shareit-load;DB_CLOSE_DELAY=-1",
+    "logging.level.ru.practicum.shareit=WARN",
+    "logging.level.org.springframework.transaction.interceptor=WARN",
+    "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN"
+})
+class LoadHarnessTest {
+    static final int USERS = Integer.getInteger("load.users", 2000);
+
+    static final int ITEMS = Integer.getInteger("load.items", 5000);
+
+    static final int BOOKINGS = Integer.getInteger("load.bookings", 100_000);
+
+    static final int CLIENTS = Integer.getInteger("load.clients", 16);
+
+    static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+
+    static final int SECONDS = Integer.getInteger("load.seconds", 30);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Test
+    void endpointsUnderConcurrentLoad() throws Exception {
+        SyntheticDataset dataset = SyntheticDataset.generate(jdbcTemplate, USERS, ITEMS, BOOKINGS, 42);
+        itemSearchIndex.rebuild();
+
+        LatencyReport report = new LoadDriver(port, dataset).run(CLIENTS, WARMUP_SECONDS, SECONDS);
+
+        log.info("Load run: {} users, {} items, {} bookings, {} clients, {} s\n{}",
+                USERS, ITEMS, BOOKINGS, CLIENTS, SECONDS, String.join("\n", report.lines(SECONDS)));
+        report.writeCsv(Path.of("target", "load-report.csv"), SECONDS);
+
+        assertEquals(0, report.serverErrors());
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.entity.State;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds users, items, bookings and comments with skewed distributions:
+ * a few hosts own most of the items and a few hot items take most of the bookings.
+ */
+class SyntheticDataset {
+    static final String[] WORDS = {"drill", "saw", "hammer", "ladder", "tent", "bike", "kayak", "camera",
+        "projector", "grill", "scooter", "sander", "mixer", "boots", "board", "jacket"};
+
+    static final long SLOT_HOURS = 6;
+
+    private static final double HOST_SKEW = 1.2;
+
+    private static final double ITEM_SKEW = 1.1;
+
+    final int hosts;
+
+    final int users;
+
+    final int items;
+
+    //Samples item ids by popularity, id 1 is the hottest item
+    final Zipf itemPopularity;
+
+    //Samples host ids by the number of items they own, id 1 owns the most
+    final Zipf hostPopularity;
+
+    private SyntheticDataset(int users, int items) {
+        this.users = users;
+        this.items = items;
+        this.hosts = Math.max(1, users / 10);
+        this.itemPopularity = new Zipf(items, ITEM_SKEW);
+        this.hostPopularity = new Zipf(hosts, HOST_SKEW);
+    }
+
+    static SyntheticDataset generate(JdbcTemplate jdbcTemplate, int users, int items, int bookings, long seed) {
+        SyntheticDataset dataset = new SyntheticDataset(users, items);
+        Random random = new Random(seed);
+
+        List<Object[]> userRows = new ArrayList<>();
+        for (int id = 1; id <= users; id++) {
+            userRows.add(new Object[]{id, "user " + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", userRows);
+
+        //Host ids are 1..hosts, everybody else only books
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int id = 1; id <= items; id++) {
+            itemRows.add(new Object[]{id,
+                    dataset.hostPopularity.sample(random),
+                    WORDS[random.nextInt(WORDS.length)] + " " + id,
+                    "rent a " + WORDS[random.nextInt(WORDS.length)] + " near " + WORDS[random.nextInt(WORDS.length)],
+                    random.nextInt(10) != 0});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, user_id, name, description, available) "
+                + "VALUES (?, ?, ?, ?, ?)", itemRows);
+
+        //Bookings of one item take consecutive slots centered on now, so they never overlap
+        int[] bookingsPerItem = new int[items + 1];
+        for (int i = 0; i < bookings; i++) {
+            bookingsPerItem[dataset.itemPopularity.sample(random)]++;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookingRows = new ArrayList<>();
+        List<Object[]> commentRows = new ArrayList<>();
+        for (int itemId = 1; itemId <= items; itemId++) {
+            LocalDateTime origin = now.minusHours(bookingsPerItem[itemId] / 2 * SLOT_HOURS);
+
+            for (int k = 0; k < bookingsPerItem[itemId]; k++) {
+                LocalDateTime start = origin.plusHours(k * SLOT_HOURS);
+                LocalDateTime end = start.plusHours(SLOT_HOURS - 1);
+                long bookerId = dataset.randomBooker(random);
+                State status = randomStatus(random, end.isBefore(now));
+
+                bookingRows.add(new Object[]{bookerId, itemId, Timestamp.valueOf(start), Timestamp.valueOf(end),
+                        status.name()});
+
+                if (status == State.APPROVED && end.isBefore(now) && random.nextInt(10) == 0) {
+                    commentRows.add(new Object[]{itemId, bookerId, "worked fine", Timestamp.valueOf(end)});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (booker_id, item_id, booking_start, booking_end, status) "
+                + "VALUES (?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (item_id, user_id, comment, created_at) "
+                + "VALUES (?, ?, ?, ?)", commentRows);
+
+        //Ids were given explicitly, move identities past them for rows created over HTTP
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (users + 1));
+        jdbcTemplate.execute("ALTER TABLE items ALTER COLUMN id RESTART WITH " + (items + 1));
+
+        return dataset;
+    }
+
+    long randomUser() {
+        return ThreadLocalRandom.current().nextInt(users) + 1;
+    }
+
+    long randomBooker() {
+        return randomBooker(ThreadLocalRandom.current());
+    }
+
+    String randomWord() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    private long randomBooker(Random random) {
+        return hosts + random.nextInt(users - hosts) + 1;
+    }
+
+    private static State randomStatus(Random random, boolean finished) {
+        int roll = random.nextInt(100);
+
+        if (finished) {
+            return roll < 85 ? State.APPROVED : State.REJECTED;
+        }
+
+        if (roll < 50) {
+            return State.WAITING;
+        }
+        return roll < 90 ? State.APPROVED : State.REJECTED;
+    }
+
+    //Zipf distribution over ranks 1..n
+    static class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double skew) {
+            cumulative = new double[n];
+
+            double sum = 0;
+            for (int rank = 1; rank <= n; rank++) {
+                sum += 1 / Math.pow(rank, skew);
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1;
+        }
+
+        int sample() {
+            return sample(ThreadLocalRandom.current());
+        }
+    }
+}
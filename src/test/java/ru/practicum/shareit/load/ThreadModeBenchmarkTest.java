@@ -0,0 +1,64 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same load against the application on Tomcat platform threads
+ * and on virtual threads with database admission control, one after another.
+ * The client count is above Tomcat's default 200 threads, so requests queue in front of
+ * the thread pool in the first mode and in front of the connection pool in the second.
+ * Reports go to target/load-report-platform.csv and target/load-report-virtual.csv.
+ * Runs only with the load profile: {@code mvn -Pload test -Dtest=ThreadModeBenchmarkTest}.
+ */
+@Slf4j
+@Tag("load")
+class ThreadModeBenchmarkTest {
+    private static final int CLIENTS = Integer.getInteger("load.mode.clients", 400);
+
+    @Test
+    void platformAndVirtualThreadsUnderTheSameLoad() throws Exception {
+        LatencyReport platform = run("platform", false);
+        LatencyReport virtual = run("virtual", true);
+
+        assertEquals(0, platform.serverErrors());
+        assertEquals(0, virtual.serverErrors());
+    }
+
+    private LatencyReport run(String mode, boolean virtualThreads) throws Exception {
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(ShareItApp.class)
+                        .profiles("test")
+                        .run("--server.port=0",
+                                "--spring.datasource.url=jdbc:h2:mem:shareit-" + mode + ";DB_CLOSE_DELAY=-1",
+                                "--spring.threads.virtual.enabled=" + virtualThreads,
+                                "--shareit.db.admission.enabled=" + virtualThreads,
+                                "--spring.main.banner-mode=off",
+                                "--logging.level.ru.practicum.shareit=WARN",
+                                "--logging.level.org.springframework.transaction.interceptor=WARN",
+                                "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")) {
+            SyntheticDataset dataset = SyntheticDataset.generate(context.getBean(JdbcTemplate.class),
+                    LoadHarnessTest.USERS, LoadHarnessTest.ITEMS, LoadHarnessTest.BOOKINGS, 42);
+            context.getBean(ItemSearchIndex.class).rebuild();
+
+            LatencyReport report = new LoadDriver(context.getWebServer().getPort(), dataset)
+                    .run(CLIENTS, LoadHarnessTest.WARMUP_SECONDS, LoadHarnessTest.SECONDS);
+
+            log.info("Load run on {} threads: {} clients, {} s\n{}",
+                    mode, CLIENTS, LoadHarnessTest.SECONDS, String.join("\n", report.lines(LoadHarnessTest.SECONDS)));
+            report.writeCsv(Path.of("target", "load-report-" + mode + ".csv"), LoadHarnessTest.SECONDS);
+
+            return report;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.serialization.JsonBytes;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadPreviewTest {
+
+    @Test
+    void shortPayloadIsKeptAsIs() {
+        assertEquals("[a, b]", PayloadPreview.of(List.of("a", "b"), 100));
+        assertEquals("value", PayloadPreview.of("value", 100));
+    }
+
+    @Test
+    void longValueIsCut() {
+        assertEquals("abc...", PayloadPreview.of("abcdef", 3));
+    }
+
+    //A cached item card carries the names and emails of its bookers and comment authors
+    @Test
+    void itemCardIsLoggedBySizeOnly() {
+        UserDto booker = UserDto.builder()
+                .id(7L)
+                .name("Private Name")
+                .email("private@mail.ru")
+                .build();
+        ItemDto item = ItemDto.builder()
+                .id(1L)
+                .name("Drill")
+                .lastBooking(BookingDto.builder().id(3).booker(booker).build())
+                .comments(List.of(CommentDto.builder().id(5).text("Fine").authorName("Private Author").build()))
+                .build();
+        byte[] card = JsonBytes.write(new ObjectMapper().findAndRegisterModules(), item);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        new AccessLogBodyAdvice(1, 1000).beforeBodyWrite(card, null, MediaType.APPLICATION_JSON, null,
+                new ServletServerHttpRequest(request), null);
+
+        assertEquals("<" + card.length + " bytes of JSON>", request.getAttribute(AccessLogFilter.PAYLOAD_ATTRIBUTE));
+    }
+
+    @Test
+    void userDataIsLeftOutOfUsersBookingsAndComments() {
+        UserDto user = UserDto.builder()
+                .id(7L)
+                .name("Private Name")
+                .email("private@mail.ru")
+                .build();
+        BookingDto booking = BookingDto.builder()
+                .id(3)
+                .booker(user)
+                .build();
+
+        CommentDto comment = CommentDto.builder()
+                .id(7)
+                .authorName("Private Name")
+                .build();
+
+        for (String preview : List.of(PayloadPreview.of(user, 1000),
+                PayloadPreview.of(List.of(booking), 1000),
+                PayloadPreview.of(ItemDto.builder().comments(List.of(comment)).build(), 1000))) {
+            assertTrue(preview.contains("id=7"), preview);
+            assertFalse(preview.contains("Private Name"), preview);
+            assertFalse(preview.contains("private@mail.ru"), preview);
+        }
+    }
+
+    @Test
+    void largeCollectionIsRenderedUpToLimit() {
+        List<String> rows = Collections.nCopies(10_000, "0123456789");
+
+        String preview = PayloadPreview.of(rows, 50);
+
+        assertTrue(preview.length() < 100, preview);
+        assertTrue(preview.endsWith(" ... 9995 more]"), preview);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.shareit.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.dto.StateDto;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.exceptions.QueryBudgetExceededException;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.user.entity.User;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.TestFixtures.bookingRow;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+    private static final int ITEMS = 30;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private RequestMetricsFilter requestMetricsFilter;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //Strict mode is on in tests, a list that grows its queries with the number of rows fails the request
+    @Test
+    void listEndpointsStayWithinTheirBudgets() throws Exception {
+        User host = fixtures.createUser("budget-host");
+        User booker = fixtures.createUser("budget-booker");
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(fixtures.createItem(host));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (Item item : items) {
+            bookings.add(bookingRow(booker, item, now.minusDays(3), now.minusDays(2)));
+            bookings.add(bookingRow(booker, item, now.plusDays(2), now.plusDays(3)));
+            comments.add(new Object[]{item.getId(), booker.getId(), "fine", Timestamp.valueOf(now)});
+        }
+        fixtures.insertBookings(bookings);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (item_id, user_id, comment, created_at) "
+                + "VALUES (?, ?, ?, ?)", comments);
+
+        mvc.perform(get("/items").header(Constants.HEADER_FOR_USER_ID, host.getId()))
+                .andExpect(status().isOk());
+        mvc.perform(get("/items/" + items.get(0).getId()).header(Constants.HEADER_FOR_USER_ID, host.getId()))
+                .andExpect(status().isOk());
+        mvc.perform(get("/users").header(Constants.HEADER_FOR_USER_ID, host.getId()))
+                .andExpect(status().isOk());
+
+        for (StateDto state : StateDto.values()) {
+            mvc.perform(get("/bookings").param("state", state.name())
+                            .header(Constants.HEADER_FOR_USER_ID, booker.getId()))
+                    .andExpect(status().isOk());
+            mvc.perform(get("/bookings/owner").param("state", state.name())
+                            .header(Constants.HEADER_FOR_USER_ID, host.getId()))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void requestOverBudgetFailsInStrictMode() {
+        RequestStatementInspector inspector = new RequestStatementInspector();
+
+        assertThrows(QueryBudgetExceededException.class, () -> requestMetricsFilter.doFilter(
+                new MockHttpServletRequest("GET", "/items"),
+                new MockHttpServletResponse(),
+                (request, response) -> {
+                    RequestQueryStats.current().setBudget(1);
+                    inspector.inspect("select 1");
+                    inspector.inspect("select 2");
+                }));
+    }
+}
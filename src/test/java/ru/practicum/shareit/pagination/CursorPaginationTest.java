@@ -0,0 +1,158 @@
+package ru.practicum.shareit.pagination;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CursorPaginationTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    @Qualifier("bookingServiceV1")
+    private BookingService bookingService;
+
+    @Test
+    void itemsOfOwnerAreWalkedByNextCursor() throws Exception {
+        User host = fixtures.createUser("pages-host");
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(fixtures.createItem(host).getId());
+        }
+
+        List<List<Long>> pages = walk(() -> get("/items").header(Constants.HEADER_FOR_USER_ID, host.getId()), 2);
+
+        assertEquals(List.of(created.subList(0, 2), created.subList(2, 4), created.subList(4, 5)), pages);
+    }
+
+    //Bookings that share a start are told apart by id, so none is skipped or repeated at a page border
+    @Test
+    void bookingsWithSameStartAreWalkedWithoutGapsOrRepeats() throws Exception {
+        User host = fixtures.createUser("pages-owner");
+        User booker = fixtures.createUser("pages-booker");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(bookingService.create(booker.getId(), BookingDto.builder()
+                    .itemId(fixtures.createItem(host).getId())
+                    .start(start)
+                    .end(start.plusHours(1))
+                    .build()).getId());
+        }
+
+        List<Long> walked = walk(() -> get("/bookings").header(Constants.HEADER_FOR_USER_ID, booker.getId()), 2)
+                .stream()
+                .flatMap(List::stream)
+                .toList();
+
+        assertEquals(created.reversed(), walked);
+    }
+
+    //Lists used to return every row, without page parameters a client now gets the default page and a cursor
+    @Test
+    void listWithoutPageParametersStopsAtDefaultLimit() throws Exception {
+        int defaultLimit = Integer.parseInt(Constants.DEFAULT_PAGE_LIMIT);
+        User host = fixtures.createUser("pages-default");
+        for (int i = 0; i <= defaultLimit; i++) {
+            fixtures.createItem(host);
+        }
+
+        MockHttpServletResponse response = mvc.perform(get("/items")
+                        .header(Constants.HEADER_FOR_USER_ID, host.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertEquals(defaultLimit, objectMapper.readTree(response.getContentAsByteArray()).size());
+        assertNotNull(response.getHeader(Constants.HEADER_FOR_NEXT_CURSOR));
+    }
+
+    @Test
+    void limitOutOfBoundsIsRejected() throws Exception {
+        mvc.perform(get("/users").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/users").param("limit", String.valueOf(Constants.MAX_PAGE_LIMIT + 1)))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/users").param("limit", String.valueOf(Constants.MAX_PAGE_LIMIT)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void malformedCursorIsRejected() throws Exception {
+        //Not base64 at all
+        mvc.perform(get("/users").param("cursor", "!!!"))
+                .andExpect(status().isBadRequest());
+
+        //Base64 without the separator
+        mvc.perform(get("/items/search").param("text", "drill").param("cursor", "YWJj"))
+                .andExpect(status().isBadRequest());
+
+        //Separator followed by something that is not an id
+        mvc.perform(get("/users").param("cursor", Base64.getUrlEncoder().encodeToString("|x".getBytes())))
+                .andExpect(status().isBadRequest());
+    }
+
+    //Follows X-Next-Cursor from the first page to the last and returns the ids of every page
+    private List<List<Long>> walk(Supplier<MockHttpServletRequestBuilder> request, int limit) throws Exception {
+        List<List<Long>> pages = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            MockHttpServletRequestBuilder builder = request.get().param("limit", String.valueOf(limit));
+            if (cursor != null) {
+                builder.param("cursor", cursor);
+            }
+
+            MockHttpServletResponse response = mvc.perform(builder)
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse();
+
+            List<Long> page = new ArrayList<>();
+            for (JsonNode node : objectMapper.readTree(response.getContentAsByteArray())) {
+                page.add(node.get("id").asLong());
+            }
+
+            assertTrue(page.size() <= limit);
+            pages.add(page);
+            cursor = response.getHeader(Constants.HEADER_FOR_NEXT_CURSOR);
+        } while (cursor != null);
+
+        return pages;
+    }
+}
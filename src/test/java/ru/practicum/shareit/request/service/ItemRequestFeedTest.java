@@ -0,0 +1,78 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.entity.ItemRequest;
+import ru.practicum.shareit.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemRequestFeedTest {
+    private static final long VIEWER = 1;
+
+    private static final long REQUESTOR = 2;
+
+    @Test
+    void pagesAreNewestFirstWithoutRequestsOfTheViewer() {
+        ItemRequestFeed feed = new ItemRequestFeed(10);
+        for (long id = 1; id <= 6; id++) {
+            feed.append(request(id, id % 3 == 0 ? VIEWER : REQUESTOR));
+        }
+
+        assertEquals(List.of(5L, 4L, 2L), ids(feed.findPage(VIEWER, Long.MAX_VALUE, 3)));
+        assertEquals(List.of(2L), ids(feed.findPage(VIEWER, 3, 1)));
+    }
+
+    @Test
+    void requestsAppendedOutOfOrderAreMovedIntoPlace() {
+        ItemRequestFeed feed = new ItemRequestFeed(10);
+        feed.append(request(1, REQUESTOR));
+        feed.append(request(3, REQUESTOR));
+        feed.append(request(2, REQUESTOR));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(feed.findPage(VIEWER, Long.MAX_VALUE, 3)));
+        assertTrue(feed.find(2).isPresent());
+    }
+
+    //A request committed before the feed was loaded may still be appended by its creator
+    @Test
+    void requestAlreadyInTheFeedIsNotAppendedAgain() {
+        ItemRequestFeed feed = new ItemRequestFeed(10);
+        feed.append(request(1, REQUESTOR));
+        feed.append(request(2, REQUESTOR));
+        feed.append(request(1, REQUESTOR));
+        feed.append(request(2, REQUESTOR));
+
+        assertEquals(List.of(2L, 1L), ids(feed.findPage(VIEWER, Long.MAX_VALUE, 2)));
+    }
+
+    @Test
+    void pagesPastTheOldestKeptRequestAreLeftToTheDatabase() {
+        ItemRequestFeed feed = new ItemRequestFeed(3);
+        for (long id = 1; id <= 5; id++) {
+            feed.append(request(id, REQUESTOR));
+        }
+
+        assertEquals(List.of(5L, 4L, 3L), ids(feed.findPage(VIEWER, Long.MAX_VALUE, 3)));
+        assertTrue(feed.findPage(VIEWER, Long.MAX_VALUE, 4).isEmpty());
+        assertTrue(feed.findPage(VIEWER, 3, 1).isEmpty());
+        assertTrue(feed.find(2).isEmpty());
+    }
+
+    private static List<Long> ids(Optional<List<ItemRequestFeed.Entry>> page) {
+        return page.orElseThrow().stream().map(ItemRequestFeed.Entry::id).toList();
+    }
+
+    private static ItemRequest request(long id, long requestorId) {
+        return ItemRequest.builder()
+                .id(id)
+                .description("request " + id)
+                .requestor(User.builder().id(requestorId).build())
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.entity.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//A small feed, so the deeper pages are read from the database
+@SpringBootTest(properties = "shareit.request-feed.capacity=5")
+class ItemRequestServiceImplTest {
+    private static final int REQUESTS = 12;
+
+    @Autowired
+    @Qualifier("itemRequestServiceV1")
+    private ItemRequestService itemRequestService;
+
+    @Autowired
+    @Qualifier("itemServiceV1")
+    private ItemService itemService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void feedIsNewestFirstWithAnswersAcrossMemoryAndDatabase() {
+        User viewer = fixtures.createUser("feed-viewer");
+        User requestor = fixtures.createUser("feed-requestor");
+        itemRequestService.create(viewer.getId(), request("own request"));
+
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            ItemRequestDto request = itemRequestService.create(requestor.getId(), request("wanted " + i));
+            answer(viewer, request.getId());
+            created.add(request.getId());
+        }
+
+        List<ItemRequestDto> feed = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ItemRequestDto> page = itemRequestService.findFeed(viewer.getId(), cursor, 4);
+            feed.addAll(page.getContent());
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        List<Long> ids = feed.stream().map(ItemRequestDto::getId).toList();
+        assertEquals(ids.stream().sorted(Comparator.reverseOrder()).toList(), ids);
+        assertTrue(ids.containsAll(created));
+        assertTrue(feed.stream().noneMatch(request -> request.getDescription().equals("own request")));
+
+        for (ItemRequestDto request : feed) {
+            if (created.contains(request.getId())) {
+                assertEquals(1, request.getItems().size());
+                assertEquals(viewer.getId(), request.getItems().iterator().next().getOwnerId());
+            }
+        }
+    }
+
+    @Test
+    void answersOfAPageComeFromOneQuery() {
+        User viewer = fixtures.createUser("batch-viewer");
+        User requestor = fixtures.createUser("batch-requestor");
+        for (int i = 0; i < 4; i++) {
+            ItemRequestDto request = itemRequestService.create(requestor.getId(), request("batch " + i));
+            answer(viewer, request.getId());
+            answer(viewer, request.getId());
+        }
+
+        long smallPage = fixtures.countQueries(() -> itemRequestService.findFeed(viewer.getId(), null, 1));
+        long largePage = fixtures.countQueries(() -> itemRequestService.findFeed(viewer.getId(), null, 4));
+
+        assertEquals(smallPage, largePage);
+    }
+
+    @Test
+    void itemCannotAnswerUnknownRequest() {
+        User host = fixtures.createUser("unknown-request-host");
+
+        assertThrows(NotFoundException.class, () -> answer(host, Long.MAX_VALUE));
+    }
+
+    //Items answering a request go through the service, it checks the request exists
+    private void answer(User host, long requestId) {
+        itemService.create(ItemDto.builder()
+                .name("answer")
+                .description("offered item")
+                .available(true)
+                .requestId(requestId)
+                .build(), host.getId());
+    }
+
+    private static ItemRequestDto request(String description) {
+        return ItemRequestDto.builder()
+                .description(description)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.streaming;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.TestFixtures;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.config.Constants;
+import ru.practicum.shareit.item.entity.Item;
+import ru.practicum.shareit.user.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NdjsonStreamingTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    @Qualifier("bookingServiceV1")
+    private BookingService bookingService;
+
+    @Test
+    void usersAreStreamedOnePerLineInIdOrder() throws Exception {
+        User first = fixtures.createUser("ndjson-first");
+        User second = fixtures.createUser("ndjson-second");
+
+        List<JsonNode> lines = stream(get("/users"));
+
+        List<Long> ids = lines.stream().map(line -> line.get("id").asLong()).toList();
+        assertTrue(ids.indexOf(first.getId()) >= 0);
+        assertEquals(ids.indexOf(first.getId()) + 1, ids.indexOf(second.getId()));
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertEquals("ndjson-second@mail.ru", lines.get(ids.indexOf(second.getId())).get("email").asText());
+    }
+
+    @Test
+    void bookingsAreStreamedOnePerLineNewestFirst() throws Exception {
+        User host = fixtures.createUser("ndjson-host");
+        User booker = fixtures.createUser("ndjson-booker");
+        Item item = fixtures.createItem(host);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(bookingService.create(booker.getId(), BookingDto.builder()
+                    .itemId(item.getId())
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .build()).getId());
+        }
+
+        List<JsonNode> lines = stream(get("/bookings").header(Constants.HEADER_FOR_USER_ID, booker.getId()));
+
+        assertEquals(created.reversed(), lines.stream().map(line -> line.get("id").asLong()).toList());
+        assertEquals(item.getId(), lines.getFirst().get("item").get("id").asLong());
+    }
+
+    //Nothing is written before the first row, so a missing user still gets a regular error response
+    @Test
+    void missingUserIsNotFoundBeforeTheStreamStarts() throws Exception {
+        mvc.perform(get("/bookings/owner").header(Constants.HEADER_FOR_USER_ID, Long.MAX_VALUE)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound());
+    }
+
+    //Every line is one complete JSON document and the body ends with a line break
+    private List<JsonNode> stream(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mvc.perform(request.accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertTrue(body.endsWith("\n"));
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            assertTrue(node.isObject());
+            lines.add(node);
+        }
+
+        return lines;
+    }
+}